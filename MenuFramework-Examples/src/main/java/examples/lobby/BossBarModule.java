@@ -31,8 +31,8 @@ public class BossBarModule implements Listener {
         Bukkit.getPluginManager().registerEvents(this, GUIHandler.getInstance().getPlugin());
     }
 
-    public void hideAll() {
-        customBossBar.hideAll();
+    public void dispose() {
+        customBossBar.dispose();
     }
 
     @EventHandler
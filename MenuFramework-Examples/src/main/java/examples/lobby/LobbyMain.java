@@ -34,7 +34,7 @@ public class LobbyMain extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        bossBarModule.hideAll();
+        bossBarModule.dispose();
         GUIHandler.getInstance().disable();
     }
 }
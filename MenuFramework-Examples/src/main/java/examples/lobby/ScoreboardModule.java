@@ -14,67 +14,56 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 public class ScoreboardModule implements Listener {
 
-    private Map<UUID, CustomScoreboard> playerScoreboards;
+    private static final String KEY_BALANCE = "balance";
+    private static final String KEY_LEVEL = "level";
+    private static final String KEY_VOTES = "votes";
+
+    // one scoreboard instance for all players, the personal lines are evaluated for each viewer.
+    private final CustomScoreboard scoreboard;
 
     public ScoreboardModule(JavaPlugin plugin) {
-        // local map to store instances of scoreboards
-        this.playerScoreboards = new HashMap<>();
+        this.scoreboard = createLobbyScoreboard();
 
         // Register as event listener
         Bukkit.getPluginManager().registerEvents(this, plugin);
     }
 
-    // Creating a scoreboard for a player.
+    // Showing the scoreboard to a player.
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
-        CustomScoreboard scoreboard = playerScoreboards.get(player.getUniqueId());
-        if (scoreboard == null) {
-            scoreboard = createLobbyScoreboard(player);
-            playerScoreboards.put(player.getUniqueId(), scoreboard);
-        }
-        scoreboard.show(player);
+        scoreboard.show(event.getPlayer());
     }
 
     // Example for hiding a scoreboard from a player
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
-        CustomScoreboard scoreboard = playerScoreboards.get(event.getPlayer().getUniqueId());
-        if (scoreboard != null) {
-            scoreboard.hide(event.getPlayer());
-        }
+        scoreboard.hide(event.getPlayer());
     }
 
-    // Example for updating the dynamic entries of the scoreboard.
+    // Example for updating a dynamic entry of the scoreboard. Only the lines that depend on the balance are evaluated.
     @EventHandler
     public void onBalanceChange(BalanceChangeEvent event) {
-        CustomScoreboard scoreboard = playerScoreboards.get(event.getPlayer().getUniqueId());
-        if (scoreboard == null) {
-            return;
-        }
-        scoreboard.update(event.getPlayer());
+        scoreboard.invalidate(KEY_BALANCE, event.getPlayer());
     }
 
-    // Example for creating a player scoreboard
-    private CustomScoreboard createLobbyScoreboard(Player player) {
-        NetworkPlayer networkPlayer = ServerHandler.getInstance().getPlayer(player.getUniqueId());
-
+    // Example for creating a scoreboard with personal lines
+    private CustomScoreboard createLobbyScoreboard() {
         CustomScoreboard scoreboard = new CustomScoreboard("lobby_board", Component.text("My Server"), 10);
         scoreboard.setLine(2, Component.text("Balance:", NamedTextColor.GRAY));
-        scoreboard.setLine(3, () -> Component.text(networkPlayer.getBalance(), NamedTextColor.GOLD));
+        scoreboard.setPlayerLine(3, player -> Component.text(getPlayer(player).getBalance(), NamedTextColor.GOLD), KEY_BALANCE);
 
         scoreboard.setLine(5, Component.text("Level:", NamedTextColor.GRAY));
-        scoreboard.setLine(6, () -> Component.text(networkPlayer.getLevel(), NamedTextColor.DARK_PURPLE));
+        scoreboard.setPlayerLine(6, player -> Component.text(getPlayer(player).getLevel(), NamedTextColor.DARK_PURPLE), KEY_LEVEL);
 
         scoreboard.setLine(8, Component.text("Votes:", NamedTextColor.GRAY));
-        scoreboard.setLine(9, () -> Component.text(networkPlayer.getTotalVotes(), NamedTextColor.GREEN));
+        scoreboard.setPlayerLine(9, player -> Component.text(getPlayer(player).getTotalVotes(), NamedTextColor.GREEN), KEY_VOTES);
 
         return scoreboard;
     }
+
+    private NetworkPlayer getPlayer(Player player) {
+        return ServerHandler.getInstance().getPlayer(player.getUniqueId());
+    }
 }
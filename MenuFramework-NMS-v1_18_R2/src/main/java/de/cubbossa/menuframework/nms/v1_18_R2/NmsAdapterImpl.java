@@ -0,0 +1,108 @@
+package de.cubbossa.menuframework.nms.v1_18_R2;
+
+import de.cubbossa.menuframework.nms.NmsAdapter;
+import net.minecraft.network.protocol.game.ClientboundBossEventPacket;
+import net.minecraft.network.protocol.game.ClientboundOpenScreenPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.BossEvent;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.MenuType;
+import net.minecraft.world.inventory.MerchantMenu;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.craftbukkit.v1_18_R2.boss.CraftBossBar;
+import org.bukkit.craftbukkit.v1_18_R2.entity.CraftPlayer;
+import org.bukkit.craftbukkit.v1_18_R2.util.CraftChatMessage;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+public class NmsAdapterImpl implements NmsAdapter {
+
+    private static final MenuType<?>[] CHEST_TYPES = {
+            MenuType.GENERIC_9x1, MenuType.GENERIC_9x2, MenuType.GENERIC_9x3,
+            MenuType.GENERIC_9x4, MenuType.GENERIC_9x5, MenuType.GENERIC_9x6
+    };
+
+    @Override
+    public String getVersion() {
+        return "v1_18_R2";
+    }
+
+    @Override
+    public void updateInventoryTitle(Player player, String title) {
+        ServerPlayer handle = ((CraftPlayer) player).getHandle();
+        AbstractContainerMenu menu = handle.containerMenu;
+        // the player inventory has no menu type and cannot be reopened
+        if (menu == handle.inventoryMenu) {
+            return;
+        }
+        MenuType<?> type;
+        try {
+            type = menu.getType();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        handle.connection.send(new ClientboundOpenScreenPacket(menu.containerId, type, CraftChatMessage.fromString(title)[0]));
+        player.updateInventory();
+    }
+
+    @Override
+    public int openClientWindow(Player player, int rows, String title) {
+        if (rows < 1 || rows > CHEST_TYPES.length) {
+            throw new IllegalArgumentException("Rows must be between 1 and " + CHEST_TYPES.length + ", was " + rows);
+        }
+        ServerPlayer handle = ((CraftPlayer) player).getHandle();
+        int containerId = handle.nextContainerCounter();
+        handle.connection.send(new ClientboundOpenScreenPacket(containerId, CHEST_TYPES[rows - 1], CraftChatMessage.fromString(title)[0]));
+        return containerId;
+    }
+
+    @Override
+    public void updateMerchantOffers(Player player) {
+        ServerPlayer handle = ((CraftPlayer) player).getHandle();
+        if (!(handle.containerMenu instanceof MerchantMenu menu)) {
+            return;
+        }
+        handle.sendMerchantOffers(menu.containerId, menu.getOffers(), menu.getTraderLevel(), menu.getTraderXp(), menu.showProgressBar(), menu.canRestock());
+    }
+
+    @Override
+    public void sendBossBarAdd(Player player, UUID uuid, String title, float progress, BarColor color, BarStyle style) {
+        send(player, ClientboundBossEventPacket.createAddPacket(bossEvent(uuid, title, progress, color, style)));
+    }
+
+    @Override
+    public void sendBossBarRemove(Player player, UUID uuid) {
+        send(player, ClientboundBossEventPacket.createRemovePacket(uuid));
+    }
+
+    @Override
+    public void sendBossBarTitle(Player player, UUID uuid, String title) {
+        send(player, ClientboundBossEventPacket.createUpdateNamePacket(bossEvent(uuid, title, 0, BarColor.WHITE, BarStyle.SOLID)));
+    }
+
+    @Override
+    public void sendBossBarProgress(Player player, UUID uuid, float progress) {
+        send(player, ClientboundBossEventPacket.createUpdateProgressPacket(bossEvent(uuid, "", progress, BarColor.WHITE, BarStyle.SOLID)));
+    }
+
+    @Override
+    public void sendBossBarStyle(Player player, UUID uuid, BarColor color, BarStyle style) {
+        send(player, ClientboundBossEventPacket.createUpdateStylePacket(bossEvent(uuid, "", 0, color, style)));
+    }
+
+    /**
+     * The packets read their values from a boss event, this one only exists to create them.
+     */
+    private static BossEvent bossEvent(UUID uuid, String title, float progress, BarColor color, BarStyle style) {
+        BossEvent event = new BossEvent(uuid, CraftChatMessage.fromString(title, true)[0], CraftBossBar.convertColor(color), CraftBossBar.convertStyle(style)) {
+        };
+        event.setProgress(progress);
+        return event;
+    }
+
+    private static void send(Player player, ClientboundBossEventPacket packet) {
+        ((CraftPlayer) player).getHandle().connection.send(packet);
+    }
+}
@@ -0,0 +1,219 @@
+package de.cubbossa.menuframework.protocol;
+
+import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.nms.NmsAdapter;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A boss bar with a title, progress and color for each viewer. It is sent to the viewers with packets only, so
+ * personalized bars like quest progress do not create a server side boss bar per player.
+ * Changes of one tick are collected and sent once at the end of the tick, one packet per changed property.
+ * Without an NMS adapter for the server version, each viewer is shown a Bukkit boss bar instead.
+ */
+public class PacketBossBar implements Listener {
+
+	private static final int TITLE = 1;
+	private static final int PROGRESS = 1 << 1;
+	private static final int COLOR = 1 << 2;
+
+	private static class ViewerState {
+		private String title;
+		private float progress;
+		private BarColor color;
+		// one bit for each property that changed since the last flush
+		private int changes = 0;
+		// the server side boss bar of the viewer if there is no NMS adapter to send packets
+		private @Nullable BossBar fallback = null;
+
+		private ViewerState(String title, float progress, BarColor color) {
+			this.title = title;
+			this.progress = progress;
+			this.color = color;
+		}
+	}
+
+	private final UUID uuid = UUID.randomUUID();
+	@Getter
+	private BarStyle style;
+	private final Map<Player, ViewerState> viewers = new HashMap<>();
+	private final Set<Player> changedViewers = new LinkedHashSet<>();
+	private boolean flushScheduled = false;
+	private boolean disposed = false;
+
+	public PacketBossBar(BarStyle style) {
+		this.style = style;
+		Bukkit.getPluginManager().registerEvents(this, GUIHandler.getInstance().getPlugin());
+	}
+
+	public boolean isViewer(Player player) {
+		return viewers.containsKey(player);
+	}
+
+	public Collection<Player> getViewers() {
+		return Collections.unmodifiableSet(viewers.keySet());
+	}
+
+	/**
+	 * Shows the boss bar to a player. If the player already sees the bar, its values are changed instead.
+	 */
+	public void show(Player player, String title, double progress, BarColor color) {
+		if (disposed) {
+			throw new IllegalStateException("Boss bar has already been disposed.");
+		}
+		if (viewers.containsKey(player)) {
+			setTitle(player, title);
+			setProgress(player, progress);
+			setColor(player, color);
+			return;
+		}
+		checkProgress(progress);
+		ViewerState state = new ViewerState(title, (float) progress, color);
+		viewers.put(player, state);
+		NmsAdapter nms = nms();
+		if (nms == null) {
+			state.fallback = Bukkit.createBossBar(title, color, style);
+			state.fallback.setProgress(progress);
+			state.fallback.addPlayer(player);
+			return;
+		}
+		nms.sendBossBarAdd(player, uuid, title, (float) progress, color, style);
+	}
+
+	public void hide(Player player) {
+		ViewerState state = viewers.remove(player);
+		if (state == null) {
+			return;
+		}
+		changedViewers.remove(player);
+		if (state.fallback != null) {
+			state.fallback.removeAll();
+			return;
+		}
+		nms().sendBossBarRemove(player, uuid);
+	}
+
+	public void hideAll() {
+		for (Player player : new ArrayList<>(viewers.keySet())) {
+			hide(player);
+		}
+	}
+
+	/**
+	 * Hides the boss bar from all viewers and unregisters its listener. The boss bar cannot be shown again afterwards.
+	 */
+	public void dispose() {
+		hideAll();
+		HandlerList.unregisterAll(this);
+		disposed = true;
+	}
+
+	public void setTitle(Player player, String title) {
+		ViewerState state = viewers.get(player);
+		if (state == null || state.title.equals(title)) {
+			return;
+		}
+		state.title = title;
+		markChanged(player, state, TITLE);
+	}
+
+	public void setProgress(Player player, double progress) {
+		ViewerState state = viewers.get(player);
+		if (state == null || state.progress == (float) progress) {
+			return;
+		}
+		checkProgress(progress);
+		state.progress = (float) progress;
+		markChanged(player, state, PROGRESS);
+	}
+
+	public void setColor(Player player, BarColor color) {
+		ViewerState state = viewers.get(player);
+		if (state == null || state.color == color) {
+			return;
+		}
+		state.color = color;
+		markChanged(player, state, COLOR);
+	}
+
+	/**
+	 * Sets the style for all viewers.
+	 */
+	public void setStyle(BarStyle style) {
+		if (this.style == style) {
+			return;
+		}
+		this.style = style;
+		for (Map.Entry<Player, ViewerState> entry : viewers.entrySet()) {
+			markChanged(entry.getKey(), entry.getValue(), COLOR);
+		}
+	}
+
+	@EventHandler
+	public void onQuit(PlayerQuitEvent event) {
+		ViewerState state = viewers.remove(event.getPlayer());
+		changedViewers.remove(event.getPlayer());
+		if (state != null && state.fallback != null) {
+			state.fallback.removeAll();
+		}
+	}
+
+	private static void checkProgress(double progress) {
+		if (progress < 0 || progress > 1) {
+			throw new IllegalArgumentException("Progress must be between 0 and 1, was " + progress);
+		}
+	}
+
+	private static @Nullable NmsAdapter nms() {
+		return GUIHandler.getInstance().getNmsAdapter();
+	}
+
+	private void markChanged(Player player, ViewerState state, int property) {
+		state.changes |= property;
+		changedViewers.add(player);
+		if (!flushScheduled) {
+			flushScheduled = true;
+			Bukkit.getScheduler().runTask(GUIHandler.getInstance().getPlugin(), this::flush);
+		}
+	}
+
+	private void flush() {
+		flushScheduled = false;
+		for (Player player : changedViewers) {
+			ViewerState state = viewers.get(player);
+			if (state == null) {
+				continue;
+			}
+			if (state.fallback != null) {
+				state.fallback.setTitle(state.title);
+				state.fallback.setProgress(state.progress);
+				state.fallback.setColor(state.color);
+				state.fallback.setStyle(style);
+				state.changes = 0;
+				continue;
+			}
+			if ((state.changes & TITLE) != 0) {
+				nms().sendBossBarTitle(player, uuid, state.title);
+			}
+			if ((state.changes & PROGRESS) != 0) {
+				nms().sendBossBarProgress(player, uuid, state.progress);
+			}
+			if ((state.changes & COLOR) != 0) {
+				nms().sendBossBarStyle(player, uuid, state.color, style);
+			}
+			state.changes = 0;
+		}
+		changedViewers.clear();
+	}
+}
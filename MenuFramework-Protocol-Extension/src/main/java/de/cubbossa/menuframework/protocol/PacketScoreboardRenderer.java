@@ -0,0 +1,246 @@
+package de.cubbossa.menuframework.protocol;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.events.InternalStructure;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.utility.MinecraftReflection;
+import com.comphenix.protocol.wrappers.EnumWrappers;
+import com.comphenix.protocol.wrappers.WrappedChatComponent;
+import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.scoreboard.CustomScoreboardHandler;
+import de.cubbossa.menuframework.scoreboard.ScoreboardRenderer;
+import de.cubbossa.menuframework.scoreboard.ScoreboardView;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Renders sidebars by sending objective, score and team packets directly, without creating a Bukkit scoreboard for
+ * each viewer. The server only keeps the objective name and the registered lines of each sidebar.
+ * Activate it for all scoreboards with {@link CustomScoreboardHandler#setDefaultRenderer(ScoreboardRenderer)}.
+ * <br>
+ * Mind that the client drops these sidebars if another plugin assigns a new Bukkit scoreboard to the player.
+ */
+public class PacketScoreboardRenderer implements ScoreboardRenderer {
+
+	private static final int OBJECTIVE_CREATE = 0;
+	private static final int OBJECTIVE_REMOVE = 1;
+	private static final int OBJECTIVE_UPDATE = 2;
+	private static final int TEAM_CREATE = 0;
+	private static final int TEAM_REMOVE = 1;
+	private static final int TEAM_UPDATE = 2;
+	private static final int SIDEBAR_SLOT = 1;
+
+	private enum RenderType {
+		INTEGER, HEARTS
+	}
+
+	// the entry variants of the sidebars that currently exist on the client of each player
+	private static final Map<UUID, BitSet> ENTRY_VARIANTS = new HashMap<>();
+
+	@Override
+	public ScoreboardView createView(Player player, String identifier, String title, int lines) {
+		return new PacketView(player, "mf" + Integer.toHexString(identifier.hashCode()), title, lines);
+	}
+
+	/**
+	 * @param uuid the uuid of the viewer
+	 * @return the entry variants that are in use on the client of the viewer
+	 */
+	static BitSet getEntryVariants(UUID uuid) {
+		return ENTRY_VARIANTS.computeIfAbsent(uuid, k -> new BitSet());
+	}
+
+	/**
+	 * Reserves line entries for a new sidebar of a player. A scoreboard that covers another one must not use the same
+	 * entries, otherwise its teams take over the entries of the covered sidebar on the client and removing them
+	 * leaves the covered sidebar without text.
+	 *
+	 * @param variants the entry variants of the viewer, see {@link #getEntryVariants(UUID)}
+	 * @return the variant for {@link ScoreboardRenderer#getLineEntry(int, int)}
+	 */
+	static int allocateEntryVariant(BitSet variants) {
+		int variant = variants.nextClearBit(0);
+		variants.set(variant);
+		return variant;
+	}
+
+	static void releaseEntryVariant(UUID uuid, BitSet variants, int variant) {
+		variants.clear(variant);
+		if (variants.isEmpty()) {
+			ENTRY_VARIANTS.remove(uuid, variants);
+		}
+	}
+
+	/**
+	 * Forgets all entry variants of a player that left, the client drops its sidebars anyway. Sidebars that are hidden
+	 * afterwards only release their variant in the forgotten set, not in the set of a new session.
+	 *
+	 * @param uuid the uuid of the player that left
+	 */
+	static void releaseEntryVariants(UUID uuid) {
+		ENTRY_VARIANTS.remove(uuid);
+	}
+
+	/**
+	 * Sends a scoreboard packet to a viewer. Override to send packets through another channel.
+	 *
+	 * @param player the viewer to send the packet to
+	 * @param packet the packet to send
+	 */
+	protected void sendPacket(Player player, PacketContainer packet) {
+		try {
+			ProtocolLibrary.getProtocolManager().sendServerPacket(player, packet);
+		} catch (Exception exc) {
+			GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error while sending packet from scoreboard.", exc);
+		}
+	}
+
+	/**
+	 * Creates, updates or removes a sidebar objective on the client.
+	 *
+	 * @param player    the viewer
+	 * @param objective the name of the objective
+	 * @param mode      0 to create, 1 to remove and 2 to update the objective
+	 * @param title     the legacy formatted title, null if the objective is removed
+	 */
+	protected void sendObjective(Player player, String objective, int mode, @Nullable String title) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SCOREBOARD_OBJECTIVE);
+		packet.getStrings().write(0, objective);
+		packet.getIntegers().write(0, mode);
+		if (mode != OBJECTIVE_REMOVE) {
+			packet.getChatComponents().write(0, WrappedChatComponent.fromLegacyText(title));
+			packet.getEnumModifier(RenderType.class, 2).write(0, RenderType.INTEGER);
+		}
+		sendPacket(player, packet);
+	}
+
+	/**
+	 * Displays an objective in the sidebar of the client.
+	 *
+	 * @param player    the viewer
+	 * @param objective the name of the objective
+	 */
+	protected void sendDisplay(Player player, String objective) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SCOREBOARD_DISPLAY_OBJECTIVE);
+		packet.getIntegers().write(0, SIDEBAR_SLOT);
+		packet.getStrings().write(0, objective);
+		sendPacket(player, packet);
+	}
+
+	/**
+	 * Creates, updates or removes the team that renders the text of one line.
+	 *
+	 * @param player the viewer
+	 * @param team   the name of the team
+	 * @param mode   0 to create, 1 to remove and 2 to update the team
+	 * @param entry  the line entry that joins the team, only set if the team is created
+	 * @param prefix the legacy formatted text of the line, null if the team is removed
+	 */
+	protected void sendTeam(Player player, String team, int mode, @Nullable String entry, @Nullable String prefix) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SCOREBOARD_TEAM);
+		packet.getIntegers().write(0, mode);
+		packet.getStrings().write(0, team);
+		if (mode == TEAM_CREATE) {
+			packet.getSpecificModifier(Collection.class).write(0, Collections.singletonList(entry));
+		}
+		if (mode != TEAM_REMOVE) {
+			Optional<InternalStructure> optional = packet.getOptionalStructures().read(0);
+			if (optional.isPresent()) {
+				InternalStructure parameters = optional.get();
+				parameters.getChatComponents().write(0, WrappedChatComponent.fromText(""));
+				parameters.getChatComponents().write(1, WrappedChatComponent.fromLegacyText(prefix));
+				parameters.getChatComponents().write(2, WrappedChatComponent.fromText(""));
+				parameters.getStrings().write(0, "always");
+				parameters.getStrings().write(1, "always");
+				parameters.getEnumModifier(ChatColor.class, MinecraftReflection.getMinecraftClass("EnumChatFormat")).write(0, ChatColor.RESET);
+				packet.getOptionalStructures().write(0, Optional.of(parameters));
+			}
+		}
+		sendPacket(player, packet);
+	}
+
+	/**
+	 * Sets the score of a line entry, which decides the position of the line in the sidebar.
+	 *
+	 * @param player    the viewer
+	 * @param objective the name of the objective
+	 * @param entry     the line entry
+	 * @param score     the score of the entry
+	 */
+	protected void sendScore(Player player, String objective, String entry, int score) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SCOREBOARD_SCORE);
+		packet.getStrings().write(0, entry);
+		packet.getStrings().write(1, objective);
+		packet.getIntegers().write(0, score);
+		packet.getScoreboardActions().write(0, EnumWrappers.ScoreboardAction.CHANGE);
+		sendPacket(player, packet);
+	}
+
+	private class PacketView implements ScoreboardView {
+		private final Player player;
+		private final String objective;
+		private final int lines;
+		private final BitSet entryVariants;
+		private final int entryVariant;
+		// one bit for each line that has a registered team and score
+		private int registeredLines = 0;
+		private boolean removed = false;
+
+		private PacketView(Player player, String objective, String title, int lines) {
+			this.player = player;
+			this.objective = objective;
+			this.lines = lines;
+			this.entryVariants = getEntryVariants(player.getUniqueId());
+			this.entryVariant = allocateEntryVariant(entryVariants);
+			sendObjective(player, objective, OBJECTIVE_CREATE, title);
+		}
+
+		@Override
+		public void show() {
+			sendDisplay(player, objective);
+		}
+
+		@Override
+		public void hide() {
+			if (removed) {
+				return;
+			}
+			removed = true;
+			for (int i = 0; i < lines; i++) {
+				if ((registeredLines & 1 << i) != 0) {
+					sendTeam(player, objective + "_" + i, TEAM_REMOVE, null, null);
+				}
+			}
+			registeredLines = 0;
+			sendObjective(player, objective, OBJECTIVE_REMOVE, null);
+			releaseEntryVariant(player.getUniqueId(), entryVariants, entryVariant);
+		}
+
+		@Override
+		public boolean isActive() {
+			return !removed && player.isOnline();
+		}
+
+		@Override
+		public void setTitle(String title) {
+			sendObjective(player, objective, OBJECTIVE_UPDATE, title);
+		}
+
+		@Override
+		public void setLine(int index, String text) {
+			if ((registeredLines & 1 << index) != 0) {
+				sendTeam(player, objective + "_" + index, TEAM_UPDATE, null, text);
+				return;
+			}
+			registeredLines |= 1 << index;
+			String entry = ScoreboardRenderer.getLineEntry(lines - index, entryVariant);
+			sendTeam(player, objective + "_" + index, TEAM_CREATE, entry, text);
+			sendScore(player, objective, entry, lines - index);
+		}
+	}
+}
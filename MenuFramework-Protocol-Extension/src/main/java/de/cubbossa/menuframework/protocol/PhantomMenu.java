@@ -0,0 +1,276 @@
+package de.cubbossa.menuframework.protocol;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.events.ListenerPriority;
+import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.nms.NmsAdapter;
+import de.cubbossa.menuframework.util.ChatUtils;
+import lombok.Getter;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * A view only chest menu that only exists on the clients of its viewers. Window and contents are sent with packets,
+ * there is no server side inventory or container and clicks do not cause inventory events. Every click is answered by
+ * resending the window contents, so viewers cannot take or move items.
+ * Use it for leaderboards, profiles or selectors instead of a menu with {@link de.cubbossa.menuframework.inventory.ViewMode#VIEW}.
+ * Phantom menus need the NMS adapter of the server version to open their window.
+ */
+public class PhantomMenu {
+
+	private static final int PLAYER_INVENTORY_SLOTS = 36;
+	private static final ItemStack AIR = new ItemStack(Material.AIR);
+
+	// the open phantom window of each player, read from the netty threads
+	private static final Map<UUID, Session> SESSIONS = new ConcurrentHashMap<>();
+	private static PhantomListener listener = null;
+
+	private static class Session {
+		private final PhantomMenu menu;
+		private final int containerId;
+		// the player inventory at the time the window was opened, the client shows it below the menu
+		private final ItemStack[] playerItems;
+
+		private Session(PhantomMenu menu, int containerId, ItemStack[] playerItems) {
+			this.menu = menu;
+			this.containerId = containerId;
+			this.playerItems = playerItems;
+		}
+	}
+
+	@Getter
+	private final Component title;
+	@Getter
+	private final int rows;
+	private final ItemStack[] items;
+	private final Map<Integer, Consumer<Player>> clickHandlers = new ConcurrentHashMap<>();
+	private final Set<UUID> viewers = ConcurrentHashMap.newKeySet();
+
+	public PhantomMenu(ComponentLike title, int rows) {
+		this.title = title.asComponent();
+		this.rows = rows;
+		this.items = new ItemStack[rows * 9];
+		if (listener == null) {
+			listener = new PhantomListener();
+		}
+	}
+
+	public @Nullable ItemStack getItem(int slot) {
+		return items[slot];
+	}
+
+	/**
+	 * Sets an item and sends it to all viewers.
+	 */
+	public void setItem(int slot, @Nullable ItemStack item) {
+		items[slot] = item == null ? null : item.clone();
+		for (UUID uuid : viewers) {
+			Session session = SESSIONS.get(uuid);
+			Player player = Bukkit.getPlayer(uuid);
+			if (session != null && player != null) {
+				sendSlot(player, session.containerId, slot, items[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Sets an action that runs on the main thread if a viewer clicks the given slot.
+	 */
+	public void setClickHandler(int slot, @Nullable Consumer<Player> clickHandler) {
+		if (clickHandler == null) {
+			clickHandlers.remove(slot);
+		} else {
+			clickHandlers.put(slot, clickHandler);
+		}
+	}
+
+	public Collection<UUID> getViewers() {
+		return Collections.unmodifiableSet(viewers);
+	}
+
+	/**
+	 * @throws IllegalStateException if there is no NMS adapter for the server version.
+	 */
+	public void open(Player player) {
+		NmsAdapter nmsAdapter = GUIHandler.getInstance().getNmsAdapter();
+		if (nmsAdapter == null) {
+			throw new IllegalStateException("Phantom menus require the MenuFramework-NMS module of the server version.");
+		}
+		GUIHandler.getInstance().callSynchronized(() -> {
+			player.closeInventory();
+			int containerId = nmsAdapter.openClientWindow(player, rows, ChatUtils.toLegacy(title));
+			ItemStack[] playerItems = player.getInventory().getStorageContents().clone();
+			Session session = new Session(this, containerId, playerItems);
+			Session previous = SESSIONS.put(player.getUniqueId(), session);
+			if (previous != null) {
+				previous.menu.viewers.remove(player.getUniqueId());
+			}
+			viewers.add(player.getUniqueId());
+			sendContents(player, session, 0);
+		});
+	}
+
+	public void close(Player player) {
+		Session session = SESSIONS.get(player.getUniqueId());
+		if (session == null || session.menu != this || !SESSIONS.remove(player.getUniqueId(), session)) {
+			return;
+		}
+		viewers.remove(player.getUniqueId());
+		sendClose(player, session.containerId);
+		// the client closes the window without restoring the player inventory
+		GUIHandler.getInstance().callSynchronized(player::updateInventory);
+	}
+
+	public void closeAll() {
+		for (UUID uuid : new ArrayList<>(viewers)) {
+			Player player = Bukkit.getPlayer(uuid);
+			if (player != null) {
+				close(player);
+			} else {
+				viewers.remove(uuid);
+				SESSIONS.remove(uuid);
+			}
+		}
+	}
+
+	/**
+	 * Closes all phantom windows and unregisters the packet listener of phantom menus, so that no listener of a
+	 * disabled plugin instance stays registered after a reload. Called from {@link ProtocolLibListener#removePacketListener()}
+	 * on the main thread. Phantom menus that are created afterwards register a new listener.
+	 */
+	static void disable() {
+		for (Map.Entry<UUID, Session> entry : SESSIONS.entrySet()) {
+			entry.getValue().menu.viewers.remove(entry.getKey());
+			Player player = Bukkit.getPlayer(entry.getKey());
+			if (player != null) {
+				sendClose(player, entry.getValue().containerId);
+				player.updateInventory();
+			}
+		}
+		SESSIONS.clear();
+		if (listener != null) {
+			ProtocolLibrary.getProtocolManager().removePacketListener(listener);
+			HandlerList.unregisterAll(listener);
+			listener = null;
+		}
+	}
+
+	private static void sendClose(Player player, int containerId) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.CLOSE_WINDOW);
+		packet.getIntegers().write(0, containerId);
+		sendPacket(player, packet);
+	}
+
+	private void sendContents(Player player, Session session, int stateId) {
+		List<ItemStack> contents = new ArrayList<>(items.length + PLAYER_INVENTORY_SLOTS);
+		for (ItemStack item : items) {
+			contents.add(item == null ? AIR : item);
+		}
+		// the client orders the player inventory from the upper storage row down to the hotbar
+		for (int i = 9; i < PLAYER_INVENTORY_SLOTS; i++) {
+			contents.add(session.playerItems[i] == null ? AIR : session.playerItems[i]);
+		}
+		for (int i = 0; i < 9; i++) {
+			contents.add(session.playerItems[i] == null ? AIR : session.playerItems[i]);
+		}
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.WINDOW_ITEMS);
+		packet.getIntegers().write(0, session.containerId);
+		packet.getIntegers().write(1, stateId);
+		packet.getItemListModifier().write(0, contents);
+		packet.getItemModifier().write(0, AIR);
+		sendPacket(player, packet);
+	}
+
+	private void sendSlot(Player player, int containerId, int slot, @Nullable ItemStack item) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SET_SLOT);
+		packet.getIntegers().write(0, containerId);
+		packet.getIntegers().write(2, slot);
+		packet.getItemModifier().write(0, item == null ? AIR : item);
+		sendPacket(player, packet);
+	}
+
+	private static void sendPacket(Player player, PacketContainer packet) {
+		try {
+			ProtocolLibrary.getProtocolManager().sendServerPacket(player, packet);
+		} catch (Exception exc) {
+			GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error while sending packet from phantom menu.", exc);
+		}
+	}
+
+	/**
+	 * Answers clicks and closes of phantom windows directly on the netty thread, so that the server never sees
+	 * packets for containers it does not know.
+	 */
+	private static class PhantomListener extends PacketAdapter implements Listener {
+
+		private PhantomListener() {
+			super(GUIHandler.getInstance().getPlugin(), ListenerPriority.LOWEST, PacketType.Play.Client.WINDOW_CLICK, PacketType.Play.Client.CLOSE_WINDOW);
+			ProtocolLibrary.getProtocolManager().addPacketListener(this);
+			Bukkit.getPluginManager().registerEvents(this, GUIHandler.getInstance().getPlugin());
+		}
+
+		@Override
+		public void onPacketReceiving(PacketEvent event) {
+			Player player = event.getPlayer();
+			Session session = player == null ? null : SESSIONS.get(player.getUniqueId());
+			if (session == null || event.getPacket().getIntegers().read(0) != session.containerId) {
+				return;
+			}
+			event.setCancelled(true);
+			if (event.getPacketType() == PacketType.Play.Client.CLOSE_WINDOW) {
+				if (SESSIONS.remove(player.getUniqueId(), session)) {
+					session.menu.viewers.remove(player.getUniqueId());
+					GUIHandler.getInstance().callSynchronized(player::updateInventory);
+				}
+				return;
+			}
+			PacketContainer packet = event.getPacket();
+			session.menu.sendContents(player, session, packet.getIntegers().read(1));
+			Consumer<Player> clickHandler = session.menu.clickHandlers.get(packet.getIntegers().read(2));
+			if (clickHandler != null) {
+				GUIHandler.getInstance().callSynchronized(() -> {
+					if (SESSIONS.get(player.getUniqueId()) == session) {
+						clickHandler.accept(player);
+					}
+				});
+			}
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+		public void onOpen(InventoryOpenEvent event) {
+			// a server side inventory replaces the phantom window on the client
+			Session session = SESSIONS.remove(event.getPlayer().getUniqueId());
+			if (session != null) {
+				session.menu.viewers.remove(event.getPlayer().getUniqueId());
+			}
+		}
+
+		@EventHandler
+		public void onQuit(PlayerQuitEvent event) {
+			Session session = SESSIONS.remove(event.getPlayer().getUniqueId());
+			if (session != null) {
+				session.menu.viewers.remove(event.getPlayer().getUniqueId());
+			}
+		}
+	}
+}
@@ -6,64 +6,316 @@ import com.comphenix.protocol.events.PacketAdapter;
 import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.inventory.Action;
 import de.cubbossa.menuframework.inventory.InvMenuHandler;
 import de.cubbossa.menuframework.inventory.Menu;
+import de.cubbossa.menuframework.inventory.TopInventoryMenu;
+import de.cubbossa.menuframework.inventory.context.ClickContext;
 import de.cubbossa.menuframework.inventory.context.TargetContext;
 import de.cubbossa.menuframework.inventory.implementations.AnvilMenu;
 import de.cubbossa.menuframework.inventory.listener.MenuListener;
 import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import javax.annotation.Nullable;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 
 public class ProtocolLibListener extends PacketAdapter implements MenuListener {
 
 	private static final int REPAIR_COST_PROPERTY = 0;
+	private static final int CURSOR_CONTAINER = -1;
+	private static final int CURSOR_SLOT = -1;
+
+	/**
+	 * The click modes of the window click packet in protocol order.
+	 */
+	private enum ClickMode {
+		PICKUP, QUICK_MOVE, SWAP, CLONE, THROW, QUICK_CRAFT, PICKUP_ALL
+	}
+
+	/**
+	 * A fast path menu that a player currently has open. The items and interactions of its slots are recorded on the
+	 * main thread whenever the server sends the slots to the client, so that the netty thread can resync a clicked slot
+	 * and decide whether a click handler has to run without reading the menu or its inventory.
+	 */
+	private static class ClickSession {
+		private static final int LEFT_INTERACTION = 1;
+		private static final int RIGHT_INTERACTION = 2;
+
+		private final TopInventoryMenu menu;
+		private final int topSize;
+		// the item of each top inventory slot that was last sent to the client
+		private final AtomicReferenceArray<ItemStack> items;
+		// the actions of each slot that play a sound or run a click handler
+		private final AtomicIntegerArray interactions;
+
+		private ClickSession(TopInventoryMenu menu, int topSize) {
+			this.menu = menu;
+			this.topSize = topSize;
+			this.items = new AtomicReferenceArray<>(topSize);
+			this.interactions = new AtomicIntegerArray(topSize);
+			for (int slot = 0; slot < topSize; slot++) {
+				updateInteractions(slot);
+			}
+		}
+
+		private void updateInteractions(int slot) {
+			int interaction = menu.hasInteraction(slot, Action.LEFT) ? LEFT_INTERACTION : 0;
+			if (menu.hasInteraction(slot, Action.RIGHT)) {
+				interaction |= RIGHT_INTERACTION;
+			}
+			interactions.set(slot, interaction);
+		}
+
+		private void render(int slot, @Nullable ItemStack item) {
+			if (slot >= 0 && slot < topSize) {
+				items.set(slot, item);
+				updateInteractions(slot);
+			}
+		}
+	}
 	@Getter
 	private static ProtocolLibListener instance;
 
-	private final Collection<AnvilMenu> menus = new HashSet<>();
+	/**
+	 * The latest text that a player typed into an anvil menu and that has not been handled yet.
+	 */
+	private static class PendingText {
+		private final AnvilMenu menu;
+		private final int containerId;
+		private final String text;
+		private final long tick;
+
+		private PendingText(AnvilMenu menu, int containerId, String text, long tick) {
+			this.menu = menu;
+			this.containerId = containerId;
+			this.text = text;
+			this.tick = tick;
+		}
+	}
+
+	// the anvil menu of each viewer, read from the netty threads
+	private final Map<UUID, AnvilMenu> menus = new ConcurrentHashMap<>();
+	private final Map<UUID, PendingText> pendingTexts = new ConcurrentHashMap<>();
+	private BukkitTask textTask = null;
+	private volatile long currentTick = 0;
+
+	private final Set<TopInventoryMenu> clickFastPathMenus = ConcurrentHashMap.newKeySet();
+	private final Map<UUID, ClickSession> clickSessions = new ConcurrentHashMap<>();
+	// the id of the last window that was opened for each player
+	private final Map<UUID, Integer> openWindows = new ConcurrentHashMap<>();
+
+	/**
+	 * The amount of ticks without new input before a typed text is passed to the anvil menu. With 0 ticks the text is
+	 * handled in the next tick. Texts typed in the meantime replace the previous one, only the latest text is handled.
+	 */
+	@Getter
+	@Setter
+	private int itemNameDebounceTicks = 0;
 
 	public ProtocolLibListener(Plugin plugin) {
-		super(plugin, PacketType.Play.Client.ITEM_NAME, PacketType.Play.Client.WINDOW_CLICK, PacketType.Play.Client.CLOSE_WINDOW);
+		super(plugin, PacketType.Play.Client.ITEM_NAME, PacketType.Play.Client.WINDOW_CLICK, PacketType.Play.Client.CLOSE_WINDOW,
+				PacketType.Play.Server.OPEN_WINDOW, PacketType.Play.Server.WINDOW_ITEMS, PacketType.Play.Server.SET_SLOT);
 		instance = this;
 		addPacketListerner();
 
 		InvMenuHandler.getInstance().registerListener(this);
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	/**
+	 * Enables or disables the click fast path for a menu. Left and right clicks on slots of the menu are then decided
+	 * on the netty thread and never reach the server container or the InventoryClickEvent. Such clicks are always
+	 * cancelled, click handlers still run on the main thread but cannot allow the click by un-cancelling the context.
+	 * Clicks on slots without click handler or sound never reach the main thread. Handlers are looked up whenever the
+	 * server sends a slot to the client, so a handler that is added to a rendered slot only applies after its next
+	 * refresh. Only enable it for menus whose slots are decorations or buttons.
+	 *
+	 * @param menu    The menu to change the click handling for.
+	 * @param enabled Whether clicks should be decided on the netty thread.
+	 */
+	public void setClickFastPath(TopInventoryMenu menu, boolean enabled) {
+		if (enabled) {
+			clickFastPathMenus.add(menu);
+		} else {
+			clickFastPathMenus.remove(menu);
+			clickSessions.values().removeIf(session -> session.menu == menu);
+		}
+	}
+
+	public boolean hasClickFastPath(TopInventoryMenu menu) {
+		return clickFastPathMenus.contains(menu);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onInventoryOpen(InventoryOpenEvent event) {
+		UUID uuid = event.getPlayer().getUniqueId();
+		clickSessions.remove(uuid);
+		if (!(event.getPlayer() instanceof Player)) {
+			return;
+		}
+		Inventory inventory = event.getInventory();
+		for (TopInventoryMenu menu : clickFastPathMenus) {
+			if (menu.isThisInventory(inventory, (Player) event.getPlayer())) {
+				clickSessions.put(uuid, new ClickSession(menu, inventory.getSize()));
+				return;
+			}
+		}
+	}
+
+	@EventHandler
+	public void onInventoryClose(InventoryCloseEvent event) {
+		clickSessions.remove(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler
+	public void onQuit(PlayerQuitEvent event) {
+		clickSessions.remove(event.getPlayer().getUniqueId());
+		openWindows.remove(event.getPlayer().getUniqueId());
+		menus.remove(event.getPlayer().getUniqueId());
+		PacketScoreboardRenderer.releaseEntryVariants(event.getPlayer().getUniqueId());
+	}
+
+	@Override
+	public void onPacketSending(PacketEvent packetEvent) {
+		Player player = packetEvent.getPlayer();
+		if (player == null) {
+			return;
+		}
+		PacketContainer packet = packetEvent.getPacket();
+		if (packetEvent.getPacketType() == PacketType.Play.Server.OPEN_WINDOW) {
+			openWindows.put(player.getUniqueId(), packet.getIntegers().read(0));
+			return;
+		}
+		// record the slots that the server container sends, the resyncs of the netty thread only repeat them
+		ClickSession session = clickSessions.get(player.getUniqueId());
+		if (session == null || !Bukkit.isPrimaryThread()
+				|| !Objects.equals(openWindows.get(player.getUniqueId()), packet.getIntegers().read(0))) {
+			return;
+		}
+		if (packetEvent.getPacketType() == PacketType.Play.Server.WINDOW_ITEMS) {
+			List<ItemStack> items = packet.getItemListModifier().read(0);
+			for (int slot = 0; slot < session.topSize && slot < items.size(); slot++) {
+				session.render(slot, items.get(slot));
+			}
+		} else if (packetEvent.getPacketType() == PacketType.Play.Server.SET_SLOT) {
+			session.render(packet.getIntegers().read(2), packet.getItemModifier().read(0));
+		}
 	}
 
 	@Override
 	public void register(Menu menu) {
+	}
+
+	@Override
+	public void unregister(Menu menu) {
+	}
+
+	@Override
+	public void registerViewer(Menu menu, Player player) {
 		if (menu instanceof AnvilMenu) {
-			menus.add((AnvilMenu) menu);
+			menus.put(player.getUniqueId(), (AnvilMenu) menu);
 		}
 	}
 
 	@Override
-	public void unregister(Menu menu) {
-		menus.remove(menu);
+	public void unregisterViewer(Menu menu, Player player) {
+		if (menu instanceof AnvilMenu) {
+			menus.remove(player.getUniqueId(), menu);
+		}
 	}
 
 	@Override
 	public void onPacketReceiving(PacketEvent packetEvent) {
 		if (packetEvent.getPacket().getType() == PacketType.Play.Client.ITEM_NAME) {
-			GUIHandler.getInstance().callSynchronized(() -> handleItemNamePacket(packetEvent));
+			Player player = packetEvent.getPlayer();
+			AnvilMenu menu = player == null ? null : menus.get(player.getUniqueId());
+			if (menu == null) {
+				return;
+			}
+			String text = packetEvent.getPacket().getStrings().read(0);
+			pendingTexts.put(player.getUniqueId(), new PendingText(menu, menu.getContainerId(), text, currentTick));
 			return;
 		}
+		if (packetEvent.getPacket().getType() == PacketType.Play.Client.WINDOW_CLICK) {
+			handleFastPathClick(packetEvent);
+		}
+	}
+
+	private void handleFastPathClick(PacketEvent packetEvent) {
+		Player player = packetEvent.getPlayer();
+		ClickSession session = player == null ? null : clickSessions.get(player.getUniqueId());
+		if (session == null) {
+			return;
+		}
+		PacketContainer packet = packetEvent.getPacket();
+		int containerId = packet.getIntegers().read(0);
+		int slot = packet.getIntegers().read(2);
+		int button = packet.getIntegers().read(3);
+		Integer openWindow = openWindows.get(player.getUniqueId());
+		// only plain clicks on the top inventory change nothing but the clicked slot and the cursor on the client
+		if (openWindow == null || openWindow != containerId || slot < 0 || slot >= session.topSize || button > 1
+				|| packet.getEnumModifier(ClickMode.class, 4).read(0) != ClickMode.PICKUP) {
+			return;
+		}
+		packetEvent.setCancelled(true);
+
+		int stateId = packet.getIntegers().read(1);
+		sendSetSlotPacket(player, containerId, stateId, slot, session.items.get(slot));
+		sendSetSlotPacket(player, CURSOR_CONTAINER, stateId, CURSOR_SLOT, null);
+
+		if ((session.interactions.get(slot) & (button == 0 ? ClickSession.LEFT_INTERACTION : ClickSession.RIGHT_INTERACTION)) == 0) {
+			return;
+		}
+		TopInventoryMenu menu = session.menu;
+		Action<ClickContext> action = button == 0 ? Action.LEFT : Action.RIGHT;
+		GUIHandler.getInstance().callSynchronized(() -> {
+			if (clickSessions.get(player.getUniqueId()) == session) {
+				menu.handleInteract(action, new ClickContext(player, menu, slot, action, true));
+			}
+		});
+	}
+
+	private void sendSetSlotPacket(Player player, int containerId, int stateId, int slot, @Nullable ItemStack itemStack) {
+		PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.SET_SLOT);
+		packet.getIntegers().write(0, containerId);
+		packet.getIntegers().write(1, stateId);
+		packet.getIntegers().write(2, slot);
+		packet.getItemModifier().write(0, itemStack == null ? new ItemStack(Material.AIR) : itemStack);
+		sendPacket(player, packet);
 	}
 
 	public void addPacketListerner() {
 		ProtocolLibrary.getProtocolManager().addPacketListener(this);
+		if (textTask == null) {
+			textTask = Bukkit.getScheduler().runTaskTimer(plugin, this::handlePendingTexts, 1, 1);
+		}
 	}
 
 	public void removePacketListener() {
 		ProtocolLibrary.getProtocolManager().removePacketListener(this);
+		if (textTask != null) {
+			textTask.cancel();
+			textTask = null;
+		}
+		pendingTexts.clear();
+		PhantomMenu.disable();
 	}
 
 	public void sendSetItemPacket(AnvilMenu menu, Player player, int slot, @Nullable ItemStack itemStack) {
@@ -85,12 +337,31 @@ public class ProtocolLibListener extends PacketAdapter implements MenuListener {
 		sendPacket(player, packet);
 	}
 
-	private void handleItemNamePacket(PacketEvent packetEvent) {
-		PacketContainer packet = packetEvent.getPacket();
-		menus.forEach(anvilMenu -> {
-			anvilMenu.handleInteract(AnvilMenu.WRITE, new TargetContext<>(packetEvent.getPlayer(), anvilMenu, 0, AnvilMenu.WRITE, false, packet.getStrings().read(0)));
-			sendLevelCostPacket(packetEvent.getPlayer(), anvilMenu);
-		});
+	private void handlePendingTexts() {
+		long tick = ++currentTick;
+		if (pendingTexts.isEmpty()) {
+			return;
+		}
+		Iterator<Map.Entry<UUID, PendingText>> iterator = pendingTexts.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<UUID, PendingText> entry = iterator.next();
+			PendingText pending = entry.getValue();
+			if (tick - pending.tick <= itemNameDebounceTicks) {
+				continue;
+			}
+			// only remove the text if the player did not type again in the meantime
+			if (!pendingTexts.remove(entry.getKey(), pending)) {
+				continue;
+			}
+			Player player = Bukkit.getPlayer(entry.getKey());
+			AnvilMenu menu = pending.menu;
+			// the menu might have been closed or reopened with another container since the player typed
+			if (player == null || menus.get(entry.getKey()) != menu || menu.getContainerId() != pending.containerId) {
+				continue;
+			}
+			menu.handleInteract(AnvilMenu.WRITE, new TargetContext<>(player, menu, 0, AnvilMenu.WRITE, false, pending.text));
+			sendLevelCostPacket(player, menu);
+		}
 	}
 
 	private void sendPacket(Player player, PacketContainer packet) {
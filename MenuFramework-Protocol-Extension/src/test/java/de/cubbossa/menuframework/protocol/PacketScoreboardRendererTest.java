@@ -0,0 +1,140 @@
+package de.cubbossa.menuframework.protocol;
+
+import de.cubbossa.menuframework.scoreboard.ScoreboardRenderer;
+import de.cubbossa.menuframework.scoreboard.ScoreboardView;
+import org.bukkit.entity.Player;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+public class PacketScoreboardRendererTest {
+
+	/**
+	 * Records the scoreboard state of the client instead of sending packets. Creating a team moves its entry out of
+	 * other teams, removing a team removes its entries from the client.
+	 */
+	private static class RecordingRenderer extends PacketScoreboardRenderer {
+		// the team of each entry on the client
+		private final Map<String, String> clientTeams = new HashMap<>();
+		// the entries with a score in each objective
+		private final Map<String, Set<String>> scores = new HashMap<>();
+
+		@Override
+		protected void sendObjective(Player player, String objective, int mode, @Nullable String title) {
+			if (mode == 1) {
+				scores.remove(objective);
+			}
+		}
+
+		@Override
+		protected void sendDisplay(Player player, String objective) {
+		}
+
+		@Override
+		protected void sendTeam(Player player, String team, int mode, @Nullable String entry, @Nullable String prefix) {
+			if (mode == 0) {
+				clientTeams.put(entry, team);
+			} else if (mode == 1) {
+				clientTeams.values().removeIf(team::equals);
+			}
+		}
+
+		@Override
+		protected void sendScore(Player player, String objective, String entry, int score) {
+			scores.computeIfAbsent(objective, k -> new HashSet<>()).add(entry);
+		}
+
+		private Set<String> entries(String teamPrefix) {
+			Set<String> entries = new HashSet<>();
+			clientTeams.forEach((entry, team) -> {
+				if (team.startsWith(teamPrefix)) {
+					entries.add(entry);
+				}
+			});
+			return entries;
+		}
+	}
+
+	private static Player player(UUID uuid) {
+		return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class[]{Player.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getUniqueId":
+					return uuid;
+				case "isOnline":
+					return true;
+				default:
+					return null;
+			}
+		});
+	}
+
+	private static ScoreboardView render(PacketScoreboardRenderer renderer, Player player, String identifier, int lines) {
+		ScoreboardView view = renderer.createView(player, identifier, identifier, lines);
+		for (int line = 0; line < lines; line++) {
+			view.setLine(line, identifier + " " + line);
+		}
+		view.show();
+		return view;
+	}
+
+	private static String objective(String identifier) {
+		return "mf" + Integer.toHexString(identifier.hashCode());
+	}
+
+	@Test
+	public void stackedScoreboardsKeepTheirEntries() {
+		RecordingRenderer renderer = new RecordingRenderer();
+		Player player = player(UUID.randomUUID());
+
+		render(renderer, player, "lower", 15);
+		Set<String> lowerEntries = renderer.entries(objective("lower") + "_");
+		Assert.assertEquals(15, lowerEntries.size());
+		Assert.assertEquals(lowerEntries, renderer.scores.get(objective("lower")));
+
+		ScoreboardView upper = render(renderer, player, "upper", 15);
+		Set<String> upperEntries = renderer.entries(objective("upper") + "_");
+		Assert.assertEquals(15, upperEntries.size());
+		Assert.assertEquals(upperEntries, renderer.scores.get(objective("upper")));
+		Assert.assertTrue(Collections.disjoint(lowerEntries, upperEntries));
+
+		// removing the upper scoreboard removes its teams together with their entries
+		upper.hide();
+		Assert.assertNull(renderer.scores.get(objective("upper")));
+		Assert.assertEquals(lowerEntries, renderer.entries(objective("lower") + "_"));
+		Assert.assertEquals(lowerEntries, renderer.clientTeams.keySet());
+
+		// a scoreboard shown afterwards reuses the entries of the removed one
+		render(renderer, player, "next", 15);
+		Assert.assertEquals(upperEntries, renderer.entries(objective("next") + "_"));
+	}
+
+	@Test
+	public void entryVariantsAreReleasedOnQuit() {
+		RecordingRenderer renderer = new RecordingRenderer();
+		UUID uuid = UUID.randomUUID();
+		Player player = player(uuid);
+
+		ScoreboardView before = render(renderer, player, "before", 3);
+		render(renderer, player, "covering", 3);
+		Assert.assertEquals(2, PacketScoreboardRenderer.getEntryVariants(uuid).cardinality());
+
+		PacketScoreboardRenderer.releaseEntryVariants(uuid);
+		render(renderer, player, "rejoined", 3);
+		Assert.assertEquals(1, PacketScoreboardRenderer.getEntryVariants(uuid).cardinality());
+
+		// hiding a scoreboard of the old session keeps the variant of the new session reserved
+		before.hide();
+		Assert.assertEquals(1, PacketScoreboardRenderer.getEntryVariants(uuid).cardinality());
+		PacketScoreboardRenderer.releaseEntryVariants(uuid);
+	}
+
+	@Test
+	public void lineEntryVariants() {
+		Assert.assertEquals(ScoreboardRenderer.getLineEntry(3), ScoreboardRenderer.getLineEntry(3, 0));
+		Assert.assertEquals("§3§1§a§f", ScoreboardRenderer.getLineEntry(3, 0x1a));
+		Assert.assertNotEquals(ScoreboardRenderer.getLineEntry(1, 1), ScoreboardRenderer.getLineEntry(1, 0x11));
+	}
+}
@@ -0,0 +1,66 @@
+package de.cubbossa.menuframework.testing;
+
+import com.comphenix.protocol.events.PacketContainer;
+import de.cubbossa.menuframework.protocol.PacketScoreboardRenderer;
+import de.cubbossa.menuframework.scoreboard.BukkitScoreboardRenderer;
+import de.cubbossa.menuframework.scoreboard.ScoreboardRenderer;
+import de.cubbossa.menuframework.scoreboard.ScoreboardView;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the scoreboard renderers by rendering sidebars for many simulated viewers. All sidebars are created for the
+ * same player but never shown, the packet renderer only builds its packets without sending them.
+ */
+public class ScoreboardBenchmark {
+
+	private static class CountingPacketRenderer extends PacketScoreboardRenderer {
+		private long packets = 0;
+
+		@Override
+		protected void sendPacket(Player player, PacketContainer packet) {
+			packets++;
+		}
+	}
+
+	public static List<String> run(Player player, int viewers, int lines, int cycles) {
+		List<String> results = new ArrayList<>();
+		results.add(run("Bukkit", new BukkitScoreboardRenderer(), player, viewers, lines, cycles));
+		CountingPacketRenderer packetRenderer = new CountingPacketRenderer();
+		results.add(run("Packet", packetRenderer, player, viewers, lines, cycles) + ", " + packetRenderer.packets + " packets");
+		return results;
+	}
+
+	private static String run(String name, ScoreboardRenderer renderer, Player player, int viewers, int lines, int cycles) {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+
+		long start = System.nanoTime();
+		List<ScoreboardView> views = new ArrayList<>(viewers);
+		for (int i = 0; i < viewers; i++) {
+			ScoreboardView view = renderer.createView(player, "benchmark" + i, "Benchmark", lines);
+			for (int line = 0; line < lines; line++) {
+				view.setLine(line, "Line " + line);
+			}
+			views.add(view);
+		}
+		long created = System.nanoTime();
+		long memory = runtime.totalMemory() - runtime.freeMemory() - memoryBefore;
+
+		for (int cycle = 0; cycle < cycles; cycle++) {
+			for (ScoreboardView view : views) {
+				for (int line = 0; line < lines; line++) {
+					view.setLine(line, "Line " + line + ": " + cycle);
+				}
+			}
+		}
+		long updated = System.nanoTime();
+		views.forEach(ScoreboardView::hide);
+
+		return String.format("%s: %d viewers created in %.1fms (~%dkB), %d update cycles in %.1fms",
+				name, viewers, (created - start) / 1e6, memory / 1024, cycles, (updated - created) / 1e6);
+	}
+}
@@ -258,4 +258,8 @@ public class TestCommand extends BaseCommand {
 
 	// test all presets
 
+	@Subcommand("benchmark scoreboard")
+	public void onBenchmarkScoreboard(Player player) {
+		ScoreboardBenchmark.run(player, 1000, 15, 20).forEach(player::sendMessage);
+	}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package de.cubbossa.menuframework;
 
+import de.cubbossa.menuframework.inventory.CoveredInventoryJournal;
 import de.cubbossa.menuframework.inventory.InvMenuHandler;
 import de.cubbossa.menuframework.inventory.exception.CloseMenuException;
 import de.cubbossa.menuframework.inventory.exception.ItemPlaceException;
@@ -7,15 +8,21 @@ import de.cubbossa.menuframework.inventory.exception.MenuHandlerException;
 import de.cubbossa.menuframework.inventory.exception.OpenMenuException;
 import de.cubbossa.menuframework.inventory.listener.HotbarListener;
 import de.cubbossa.menuframework.inventory.listener.InventoryListener;
+import de.cubbossa.menuframework.inventory.listener.OnlinePlayerListener;
+import de.cubbossa.menuframework.nms.NmsAdapter;
 import de.cubbossa.menuframework.scoreboard.CustomScoreboardHandler;
+import de.cubbossa.menuframework.util.ObservableCollection;
 import lombok.Getter;
 import lombok.Setter;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,7 +38,22 @@ public class GUIHandler {
 	@Getter
 	private BukkitAudiences audiences;
 
+	/**
+	 * The adapter for server internals of the running server version. It is loaded on enable and null if no adapter
+	 * supports the running server version.
+	 */
+	@Getter
+	private @Nullable NmsAdapter nmsAdapter;
+
 	private InventoryListener listener;
+	private OnlinePlayerListener onlinePlayerListener;
+	private CoveredInventoryJournal journal;
+
+	/**
+	 * The interval in ticks in which covered hotbar items are written to the journal.
+	 */
+	@Getter
+	private long journalFlushTicks = 20;
 	@Getter
 	@Setter
 	private Consumer<Exception> exceptionHandler = t -> {
@@ -59,10 +81,12 @@ public class GUIHandler {
 	}
 
 	public void enable() {
+		this.nmsAdapter = NmsAdapter.load(plugin.getClass().getClassLoader());
 		this.audiences = BukkitAudiences.create(plugin);
 
 		new InvMenuHandler();
 		new CustomScoreboardHandler();
+		journal = new CoveredInventoryJournal(new File(plugin.getDataFolder(), "covered_inventories.journal"), journalFlushTicks);
 
 		registerDefaultListeners();
 	}
@@ -71,16 +95,40 @@ public class GUIHandler {
 		if(listener != null) {
 			listener.onServerStop();
 		}
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
 
 		this.audiences.close();
 		this.audiences = null;
 	}
 
+	/**
+	 * @param journalFlushTicks The interval in ticks in which covered hotbar items are written to the journal.
+	 *                          Applies to the running journal if the handler is already enabled.
+	 */
+	public void setJournalFlushTicks(long journalFlushTicks) {
+		this.journalFlushTicks = journalFlushTicks;
+		if (journal != null) {
+			journal.setFlushTicks(journalFlushTicks);
+		}
+	}
+
 	public void registerDefaultListeners() {
 		listener = new InventoryListener();
+		onlinePlayerListener = new OnlinePlayerListener();
 		new HotbarListener();
 	}
 
+	/**
+	 * @return All online players as observable collection, e.g. to bind them to a list menu with
+	 * {@link de.cubbossa.menuframework.inventory.implementations.ListMenu#bindListEntries(ObservableCollection, java.util.function.Function, java.util.Map)}
+	 */
+	public ObservableCollection<Player> getOnlinePlayers() {
+		return onlinePlayerListener.getOnlinePlayers();
+	}
+
 	public Logger getLogger() {
 		return plugin.getLogger();
 	}
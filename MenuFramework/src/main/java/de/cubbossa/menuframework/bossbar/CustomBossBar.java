@@ -8,45 +8,183 @@ import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.KeyedBossBar;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.logging.Level;
 
-public abstract class CustomBossBar {
+/**
+ * A boss bar that plays its animations while it has viewers. Frames are computed asynchronously and applied on the
+ * main thread, only properties that changed since the last frame are sent to the viewers.
+ */
+public class CustomBossBar {
 
+    /**
+     * The animated properties of one tick. Properties without an animation are null.
+     */
+    private static class Frame {
+        private final String title;
+        private final Double progress;
+        private final BarColor color;
+        private final BarStyle style;
+
+        private Frame(String title, Double progress, BarColor color, BarStyle style) {
+            this.title = title;
+            this.progress = progress;
+            this.color = color;
+            this.style = style;
+        }
+    }
+
+    private final NamespacedKey key;
     private KeyedBossBar bossBar;
+    private final int intervals;
+    private final int ticks;
+    private final Function<Integer, BarColor> colorAnimation;
+    private final Function<Integer, BarStyle> segmentAnimation;
+    private final Function<Integer, Double> progressAnimation;
+    private final Function<Integer, String> textAnimation;
+
+    private final AtomicInteger currentTick = new AtomicInteger(0);
+    // the latest computed frame that has not been applied yet. Frames that are computed before the main thread applied
+    // the previous one replace it.
+    private final AtomicReference<Frame> pendingFrame = new AtomicReference<>();
+    private @Nullable BukkitTask animationTask = null;
 
-    private CustomBossBar(String key, String title, double progress, BarColor color, BarStyle style) {
-        this.bossBar = Bukkit.createBossBar(new NamespacedKey(GUIHandler.getInstance().getPlugin(), key), title, color, style);
-        this.bossBar.setProgress(progress);
-        playAnimation();
+    private String title;
+    private double progress;
+    private BarColor color;
+    private BarStyle style;
+
+    private CustomBossBar(Builder builder) {
+        this.key = new NamespacedKey(GUIHandler.getInstance().getPlugin(), builder.key);
+        this.bossBar = Bukkit.createBossBar(key, builder.text, builder.color, builder.style);
+        this.bossBar.setProgress(builder.progress);
+        this.intervals = builder.intervals;
+        this.ticks = builder.ticks;
+        this.colorAnimation = builder.colorAnimation;
+        this.segmentAnimation = builder.segmentAnimation;
+        this.progressAnimation = builder.progressAnimation;
+        this.textAnimation = builder.textAnimation;
+        this.title = builder.text;
+        this.progress = builder.progress;
+        this.color = builder.color;
+        this.style = builder.style;
     }
 
     public void show(Player player) {
         if (this.bossBar != null) {
             this.bossBar.addPlayer(player);
+            playAnimation();
         }
     }
 
     public void hide(Player player) {
         if (this.bossBar != null) {
             this.bossBar.removePlayer(player);
+            if (this.bossBar.getPlayers().isEmpty()) {
+                stopAnimation();
+            }
         }
     }
 
     public void hideAll() {
-        if(this.bossBar != null) {
-            for(Player player : bossBar.getPlayers()) {
-                hide(player);
-            }
-         }
+        if (this.bossBar != null) {
+            this.bossBar.removeAll();
+            stopAnimation();
+        }
+    }
+
+    /**
+     * Hides the boss bar from all viewers, stops its animation and removes it from the server.
+     * The boss bar cannot be shown again afterwards.
+     */
+    public void dispose() {
+        if (this.bossBar == null) {
+            return;
+        }
+        hideAll();
+        Bukkit.removeBossBar(key);
+        this.bossBar = null;
+    }
+
+    /**
+     * @return true if the animation of this boss bar is currently running.
+     */
+    public boolean isAnimating() {
+        return animationTask != null;
     }
 
     protected KeyedBossBar getBossBar() {
         return bossBar;
     }
 
-    protected abstract void playAnimation();
+    /**
+     * Starts the animation if the boss bar is animated and not already playing. It continues at the tick it was
+     * stopped at.
+     */
+    protected void playAnimation() {
+        if (animationTask != null || !isAnimated()) {
+            return;
+        }
+        animationTask = Bukkit.getScheduler().runTaskTimerAsynchronously(GUIHandler.getInstance().getPlugin(), this::computeFrame, 0, ticks);
+    }
+
+    protected void stopAnimation() {
+        if (animationTask == null) {
+            return;
+        }
+        animationTask.cancel();
+        animationTask = null;
+        pendingFrame.set(null);
+    }
+
+    private boolean isAnimated() {
+        return textAnimation != null || progressAnimation != null || colorAnimation != null || segmentAnimation != null;
+    }
+
+    private void computeFrame() {
+        int tick = currentTick.get();
+        try {
+            Frame frame = new Frame(
+                    textAnimation == null ? null : textAnimation.apply(tick),
+                    progressAnimation == null ? null : progressAnimation.apply(tick),
+                    colorAnimation == null ? null : colorAnimation.apply(tick),
+                    segmentAnimation == null ? null : segmentAnimation.apply(tick));
+            if (pendingFrame.getAndSet(frame) == null) {
+                Bukkit.getScheduler().runTask(GUIHandler.getInstance().getPlugin(), this::applyFrame);
+            }
+        } catch (Throwable t) {
+            GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error occured while animating boss bar " + key, t);
+        }
+        currentTick.set(tick + 1 >= intervals ? 0 : tick + 1);
+    }
+
+    private void applyFrame() {
+        Frame frame = pendingFrame.getAndSet(null);
+        if (frame == null || bossBar == null || animationTask == null) {
+            return;
+        }
+        if (frame.title != null && !frame.title.equals(title)) {
+            title = frame.title;
+            bossBar.setTitle(title);
+        }
+        if (frame.progress != null && frame.progress != progress) {
+            progress = frame.progress;
+            bossBar.setProgress(progress);
+        }
+        if (frame.color != null && frame.color != color) {
+            color = frame.color;
+            bossBar.setColor(color);
+        }
+        if (frame.style != null && frame.style != style) {
+            style = frame.style;
+            bossBar.setStyle(style);
+        }
+    }
 
     public static class Builder {
 
@@ -134,31 +272,7 @@ public abstract class CustomBossBar {
 
 
         public CustomBossBar build() {
-            return new CustomBossBar(key, text, progress, color, style) {
-                @Override
-                protected void playAnimation() {
-                    AtomicInteger currentTick = new AtomicInteger(0);
-                    Bukkit.getScheduler().runTaskTimerAsynchronously(GUIHandler.getInstance().getPlugin(), () -> {
-                        int tick = currentTick.get();
-                        if(textAnimation != null) {
-                            getBossBar().setTitle(textAnimation.apply(tick));
-                        }
-                        if(progressAnimation != null) {
-                            getBossBar().setProgress(progressAnimation.apply(tick));
-                        }
-                        if(colorAnimation != null) {
-                            getBossBar().setColor(colorAnimation.apply(tick));
-                        }
-                        if(segmentAnimation != null) {
-                            getBossBar().setStyle(segmentAnimation.apply(tick));
-                        }
-                        currentTick.addAndGet(1);
-                        if(currentTick.get() >= intervals) {
-                            currentTick.set(0);
-                        }
-                    }, 0, ticks);
-                }
-            };
+            return new CustomBossBar(this);
         }
     }
 }
@@ -7,48 +7,107 @@ import lombok.Setter;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.TextComponent;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class ChatMenu<T> implements ComponentLike {
 
+    public enum SendMode {
+        /**
+         * Every line is sent as its own chat message.
+         */
+        LINES,
+        /**
+         * All lines of a page are joined into one newline separated chat message.
+         */
+        SINGLE_MESSAGE
+    }
+
     @Setter
     public static Component INDENT_COMPONENT = Component.text("\u00BB");
+    // indent components of all depths for the default indent component
+    private static final List<Component> DEFAULT_INDENTS = Lists.newArrayList();
+    private static Component defaultIndentsSource = null;
 
     @Getter
-    @Setter
     protected T message;
     protected final List<ChatMenu<?>> subMenus = Lists.newArrayList();
+    // all menus that contain this menu as sub menu, once for each occurrence
+    private final List<ChatMenu<?>> parentMenus = Lists.newArrayList();
+
+    // the amount of lines of this menu and all sub menus and the first line of each sub menu, -1 if outdated
+    private int lineCount = -1;
+    private int[] subMenuOffsets = null;
 
     @Getter
-    @Setter
     protected @Nullable Component indentComponent = null;
+    private final List<Component> indents = Lists.newArrayList();
+
+    @Getter
+    @Setter
+    private SendMode sendMode = SendMode.LINES;
+
+    // the compiled message and the message with its indentation, null if outdated
+    private Component component = null;
+    private Component line = null;
+    private int lineIndentation;
+    private Component lineIndent;
+    // the last joined page, null if outdated
+    private Component page = null;
+    private int pageNumber;
+    private int pageLines;
 
     public ChatMenu(T message) {
         this.message = message;
     }
 
+    public void setMessage(T message) {
+        this.message = message;
+        invalidateComponent();
+    }
+
+    public void setIndentComponent(@Nullable Component indentComponent) {
+        this.indentComponent = indentComponent;
+        indents.clear();
+        invalidateComponent();
+    }
+
     public ChatMenu<T> addSub(ChatMenu<?> menu) {
         if (!menu.equals(this)) {
             subMenus.add(menu);
+            menu.parentMenus.add(this);
+            invalidateLineCount();
         }
         return this;
     }
 
     public boolean removeSub(ChatMenu<?> menu) {
-        return subMenus.remove(menu);
+        if (!subMenus.remove(menu)) {
+            return false;
+        }
+        menu.parentMenus.remove(this);
+        invalidateLineCount();
+        return true;
     }
 
     public void clearSubs() {
+        subMenus.forEach(menu -> menu.parentMenus.remove(this));
         subMenus.clear();
+        invalidateLineCount();
     }
 
+    /**
+     * @return An unmodifiable view of all sub menus. Use {@link #addSub(ChatMenu)} and {@link #removeSub(ChatMenu)} to modify them.
+     */
     public List<ChatMenu<?>> getSubs() {
-        return subMenus;
+        return Collections.unmodifiableList(subMenus);
     }
 
     public boolean hasSubs() {
@@ -57,6 +116,26 @@ public abstract class ChatMenu<T> implements ComponentLike {
 
     public abstract Component toComponent(T message);
 
+    /**
+     * @return The compiled message of this menu. It is only compiled again after {@link #invalidateComponent()}.
+     */
+    public Component getComponent() {
+        if (component == null) {
+            component = toComponent(message);
+        }
+        return component;
+    }
+
+    /**
+     * Drops the compiled message of this menu and all pages that contain it. Must be called whenever a property that
+     * {@link #toComponent(Object)} depends on changes.
+     */
+    protected void invalidateComponent() {
+        component = null;
+        line = null;
+        invalidatePages();
+    }
+
     public List<Component> toComponents() {
         return toComponents(-1, 0, 1024);
     }
@@ -65,41 +144,141 @@ public abstract class ChatMenu<T> implements ComponentLike {
         return toComponents(-1, page, menusPerPage);
     }
 
+    /**
+     * Builds the lines of one page. Sub menus before the page are skipped by their cached line count, so only the
+     * components of the visible lines are built.
+     */
     public List<Component> toComponents(int indentation, int page, int menusPerPage) {
+        int lines = getLineCount();
+        int from = Integer.min(page * menusPerPage, lines - 1);
+        int to = Integer.min(page * menusPerPage + menusPerPage, lines);
+        List<Component> components = Lists.newArrayListWithCapacity(Integer.max(to - from, 0));
+        collectComponents(indentation, from, to - from, components);
+        return components;
+    }
+
+    /**
+     * @return The amount of lines of this menu including all sub menus.
+     */
+    public int getLineCount() {
+        if (lineCount >= 0) {
+            return lineCount;
+        }
+        int[] offsets = new int[subMenus.size()];
+        int count = 1;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = count;
+            count += subMenus.get(i).getLineCount();
+        }
+        subMenuOffsets = offsets;
+        lineCount = count;
+        return count;
+    }
+
+    private void collectComponents(int indentation, int skip, int limit, List<Component> components) {
+        if (skip == 0) {
+            components.add(getLine(indentation));
+        }
+        int[] offsets = subMenuOffsets;
+        // find the last sub menu that starts before the first requested line
+        int index = Arrays.binarySearch(offsets, Integer.max(skip, 1));
+        if (index < 0) {
+            index = Integer.max(-index - 2, 0);
+        }
+        int localSkip = Integer.max(skip, 1);
+        for (int i = index; i < offsets.length && components.size() < limit; i++) {
+            subMenus.get(i).collectComponents(indentation + 1, Integer.max(localSkip - offsets[i], 0), limit, components);
+        }
+    }
+
+    private Component getLine(int indentation) {
+        Component indent = indentation(indentation);
+        if (line == null || lineIndentation != indentation || lineIndent != indent) {
+            line = indent.append(getComponent());
+            lineIndentation = indentation;
+            lineIndent = indent;
+        }
+        return line;
+    }
+
+    private void invalidateLineCount() {
+        // a page is only cached if the line count is, so both are dropped together
+        page = null;
+        if (lineCount < 0) {
+            return;
+        }
+        lineCount = -1;
+        subMenuOffsets = null;
+        parentMenus.forEach(ChatMenu::invalidateLineCount);
+    }
 
-        List<Component> components = Lists.newArrayList();
-        components.add(indentation(indentation).append(toComponent(message)));
-        subMenus.forEach(subMenu -> components.addAll(subMenu.toComponents(indentation + 1, 0, 1024)));
-        return components.subList(Integer.min(page * menusPerPage, components.size() - 1), Integer.min(page * menusPerPage + menusPerPage, components.size()));
+    private void invalidatePages() {
+        page = null;
+        parentMenus.forEach(ChatMenu::invalidatePages);
     }
 
+    /**
+     * @return The indentation for the given depth. Indentations are built once per depth and indent component.
+     */
     public Component indentation(int ind) {
         if (ind < 0) {
             return Component.empty();
         }
-        TextComponent.Builder componentBuilder = Component.text().content("");
-        componentBuilder.append(Component.text(" ".repeat(ind)));
-        componentBuilder.append(indentComponent == null ? INDENT_COMPONENT : indentComponent).append(Component.text(" "));
-        return componentBuilder.build();
+        if (indentComponent != null) {
+            return indentation(ind, indentComponent, indents);
+        }
+        synchronized (DEFAULT_INDENTS) {
+            if (defaultIndentsSource != INDENT_COMPONENT) {
+                DEFAULT_INDENTS.clear();
+                defaultIndentsSource = INDENT_COMPONENT;
+            }
+            return indentation(ind, INDENT_COMPONENT, DEFAULT_INDENTS);
+        }
+    }
+
+    private static Component indentation(int ind, Component indentComponent, List<Component> indents) {
+        while (indents.size() <= ind) {
+            indents.add(null);
+        }
+        Component indent = indents.get(ind);
+        if (indent == null) {
+            TextComponent.Builder componentBuilder = Component.text().content("");
+            componentBuilder.append(Component.text(" ".repeat(ind)));
+            componentBuilder.append(indentComponent).append(Component.text(" "));
+            indent = componentBuilder.build();
+            indents.set(ind, indent);
+        }
+        return indent;
+    }
+
+    /**
+     * Joins the lines of one page into a single newline separated component. The last joined page is cached until
+     * this menu or one of its sub menus changes.
+     */
+    public Component toPageComponent(int page, int linesPerPage) {
+        if (this.page == null || pageNumber != page || pageLines != linesPerPage) {
+            this.page = Component.join(JoinConfiguration.newlines(), toComponents(page, linesPerPage));
+            pageNumber = page;
+            pageLines = linesPerPage;
+        }
+        return this.page;
     }
 
     public void send(Player player) {
-        Audience audience = GUIHandler.getInstance().getAudiences().player(player);
-        toComponents(0, 1024).forEach(audience::sendMessage);
+        send(player, 0, 1024);
     }
 
     public void send(Player player, int page, int linesPerPage) {
         Audience audience = GUIHandler.getInstance().getAudiences().player(player);
+        if (sendMode == SendMode.SINGLE_MESSAGE) {
+            audience.sendMessage(toPageComponent(page, linesPerPage));
+            return;
+        }
         toComponents(page, linesPerPage).forEach(audience::sendMessage);
     }
 
     @Override
     public @NotNull Component asComponent() {
-        List<Component> components = toComponents();
-        Component c = components.get(0);
-        for (int i = 1; i < components.size(); i++) {
-            c = c.append(Component.newline()).append(components.get(i));
-        }
-        return c;
+        return toPageComponent(0, 1024);
     }
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package de.cubbossa.menuframework.chat;
 
 import de.cubbossa.menuframework.util.ChatUtils;
 import lombok.Getter;
-import lombok.Setter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
@@ -12,15 +11,12 @@ import javax.annotation.Nullable;
 public class TextMenu extends ChatMenu<String> {
 
 	@Getter
-	@Setter
 	private ClickEvent.Action action = null;
 
 	@Getter
-	@Setter
 	private String actionString = "";
 
 	@Getter
-	@Setter
 	private String description;
 
 	public TextMenu(String message) {
@@ -45,6 +41,21 @@ public class TextMenu extends ChatMenu<String> {
 		this.description = description;
 	}
 
+	public void setAction(ClickEvent.Action action) {
+		this.action = action;
+		invalidateComponent();
+	}
+
+	public void setActionString(String actionString) {
+		this.actionString = actionString;
+		invalidateComponent();
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+		invalidateComponent();
+	}
+
 	public Component toComponent(String message) {
 		Component localComponent = ChatUtils.fromLegacy(message);
 		if (action != null) {
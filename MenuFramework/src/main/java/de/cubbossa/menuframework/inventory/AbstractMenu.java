@@ -86,6 +86,8 @@ public abstract class AbstractMenu implements Menu {
     protected int offset = 0;
 
     protected Inventory inventory;
+    // slots that were refreshed while the menu had no viewers, they are updated once the rendered inventory is shown again
+    protected final SortedSet<Integer> dirtySlots;
 
     public AbstractMenu(int slotsPerPage) {
 
@@ -103,6 +105,7 @@ public abstract class AbstractMenu implements Menu {
         this.defaultClickHandler = new HashMap<>();
         this.openHandlers = new ArrayList<>();
         this.closeHandlers = new ArrayList<>();
+        this.dirtySlots = new TreeSet<>();
     }
 
 
@@ -183,6 +186,41 @@ public abstract class AbstractMenu implements Menu {
         } catch (ItemPlaceException e) {
             GUIHandler.getInstance().getExceptionHandler().accept(e);
         }
+        showInventory(viewer, viewMode);
+    }
+
+    /**
+     * Shows the inventory of the last render again without running presets or rendering all slots. Only the slots
+     * that were refreshed while the menu was hidden are updated. If the menu has not been rendered yet, it is opened
+     * with {@link #openSync(Player, ViewMode)}.
+     *
+     * @param viewer   The player to open the menu for.
+     * @param viewMode The view mode to open the menu with.
+     */
+    public void openRenderedSync(Player viewer, ViewMode viewMode) {
+        if (inventory == null) {
+            openSync(viewer, viewMode);
+            return;
+        }
+        if (viewer.isSleeping()) {
+            viewer.wakeup(true);
+        }
+        refreshDirtySlots();
+        showInventory(viewer, viewMode);
+    }
+
+    /**
+     * Drops the rendered inventory of a hidden menu, so that it will be created and rendered again with the next open.
+     */
+    public void discardRender() {
+        if (!this.viewer.isEmpty()) {
+            return;
+        }
+        inventory = null;
+        dirtySlots.clear();
+    }
+
+    private void showInventory(Player viewer, ViewMode viewMode) {
         openInventory(viewer, inventory);
 
         if (this.viewer.isEmpty()) {
@@ -198,6 +236,7 @@ public abstract class AbstractMenu implements Menu {
         if (this.viewer.size() == 1) {
             firstOpen();
         }
+        InvMenuHandler.getInstance().registerViewer(this, viewer);
 
         OpenContext openContext = new OpenContext(viewer, this);
         for (ContextConsumer<OpenContext> c : openHandlers) {
@@ -219,6 +258,7 @@ public abstract class AbstractMenu implements Menu {
         if (clear) {
             clearContent();
         }
+        dirtySlots.clear();
 
         refreshDynamicItemSuppliers();
 
@@ -251,6 +291,7 @@ public abstract class AbstractMenu implements Menu {
         if (this.viewer.remove(viewer.getUniqueId()) == null) {
             return;
         }
+        InvMenuHandler.getInstance().unregisterViewer(this, viewer);
         if (this.viewer.size() == 0) {
             animations.forEach((integer, animations1) -> animations1.forEach(Animation::stop));
             lastClose();
@@ -336,6 +377,12 @@ public abstract class AbstractMenu implements Menu {
         if (inventory == null) {
             return;
         }
+        if (viewer.isEmpty()) {
+            for (int slot : slots) {
+                dirtySlots.add(slot);
+            }
+            return;
+        }
         int page = getCurrentPage();
         for (int slot : slots) {
             int realIndex = page * slotsPerPage + slot;
@@ -343,6 +390,14 @@ public abstract class AbstractMenu implements Menu {
         }
     }
 
+    private void refreshDirtySlots() {
+        int page = getCurrentPage();
+        for (int slot : dirtySlots) {
+            inventory.setItem(slot, getItemStack(page * slotsPerPage + slot));
+        }
+        dirtySlots.clear();
+    }
+
     public <C extends TargetContext<?>> boolean handleInteract(Action<C> action, C context) {
 
         Player player = context.getPlayer();
@@ -373,6 +428,22 @@ public abstract class AbstractMenu implements Menu {
         return context.isCancelled();
     }
 
+    /**
+     * Checks without a context whether {@link #handleInteract(Action, TargetContext)} would play a sound or run a click
+     * handler for the given slot and action.
+     *
+     * @param slot   The slot within the page, like the slot of a click context.
+     * @param action The action of the click.
+     * @return true if a sound or click handler is registered for the slot.
+     */
+    public boolean hasInteraction(int slot, Action<?> action) {
+        if (Arrays.stream(getSlots()).noneMatch(value -> value == slot)) {
+            return false;
+        }
+        int actualSlot = slot + offset;
+        return soundPlayer.containsKey(actualSlot) || getClickHandler(actualSlot, action) != null;
+    }
+
     public ContextConsumer<? extends TargetContext<?>> getClickHandler(int slot, Action<?> action) {
         int fixedSlot = slot % slotsPerPage;
         fixedSlot = fixedSlot < 0 ? fixedSlot + slotsPerPage : fixedSlot;
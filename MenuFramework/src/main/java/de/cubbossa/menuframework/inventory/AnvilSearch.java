@@ -0,0 +1,90 @@
+package de.cubbossa.menuframework.inventory;
+
+import de.cubbossa.menuframework.inventory.context.ContextConsumer;
+import de.cubbossa.menuframework.inventory.context.TargetContext;
+import de.cubbossa.menuframework.inventory.implementations.AnvilMenu;
+import de.cubbossa.menuframework.util.SearchIndex;
+import lombok.Getter;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Searches a {@link SearchIndex} with the text of an anvil menu and displays the best matches in a results menu,
+ * e.g. the bottom inventory below the anvil. Each time the text changes, only the result slots whose element changed
+ * are set and refreshed.
+ *
+ * @param <E> The type of the searched elements.
+ */
+public class AnvilSearch<E> {
+
+    @Getter
+    private final SearchIndex<E> index;
+    private final Function<E, ItemStack> itemSupplier;
+    private final ContextConsumer<TargetContext<E>> selectHandler;
+
+    /**
+     * @param index         The index to search. It may be changed while the search is attached, changes are visible
+     *                      with the next input.
+     * @param itemSupplier  Creates the display item of a result.
+     * @param selectHandler Is called if a player left clicks a result.
+     */
+    public AnvilSearch(SearchIndex<E> index, Function<E, ItemStack> itemSupplier, ContextConsumer<TargetContext<E>> selectHandler) {
+        this.index = index;
+        this.itemSupplier = itemSupplier;
+        this.selectHandler = selectHandler;
+    }
+
+    /**
+     * Shows the results for the text of the anvil menu in the given slots of the results menu. The results are filled
+     * initially with the first elements in alphabetical order.
+     * The search is called after the write handler that is set for the anvil menu at the time of attaching, write
+     * handlers set afterwards replace the search.
+     *
+     * @param anvil   The anvil menu to read the text from.
+     * @param results The menu to display the results in.
+     * @param slots   The slots of the results menu, the best match is displayed in the first slot.
+     */
+    public void attach(AnvilMenu anvil, AbstractMenu results, int... slots) {
+        Object[] shown = new Object[slots.length];
+        ContextConsumer<TargetContext<String>> writeHandler = (ContextConsumer<TargetContext<String>>) anvil.getStaticClickHandler(0, AnvilMenu.WRITE);
+        anvil.setClickHandler(0, AnvilMenu.WRITE, c -> {
+            if (writeHandler != null) {
+                writeHandler.accept(c);
+            }
+            showResults(results, slots, shown, c.getTarget());
+        });
+        showResults(results, slots, shown, "");
+    }
+
+    private void showResults(AbstractMenu results, int[] slots, Object[] shown, String query) {
+        List<E> matches = index.search(query == null ? "" : query, slots.length);
+        int[] changed = new int[slots.length];
+        int changedCount = 0;
+        for (int i = 0; i < slots.length; i++) {
+            E element = i < matches.size() ? matches.get(i) : null;
+            if (Objects.equals(shown[i], element)) {
+                continue;
+            }
+            shown[i] = element;
+            int slot = slots[i];
+            changed[changedCount++] = slot;
+            if (element == null) {
+                results.removeItemAndClickHandler(slot);
+                continue;
+            }
+            results.setItem(slot, itemSupplier.apply(element));
+            results.setClickHandler(slot, Action.LEFT, c -> {
+                TargetContext<E> context = TargetContext.recreate(c, element);
+                selectHandler.accept(context);
+                c.setCancelled(context.isCancelled());
+            });
+        }
+        if (changedCount > 0) {
+            results.refresh(Arrays.copyOf(changed, changedCount));
+        }
+    }
+}
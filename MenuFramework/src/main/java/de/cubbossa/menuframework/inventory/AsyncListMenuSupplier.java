@@ -0,0 +1,54 @@
+package de.cubbossa.menuframework.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the elements of a {@link de.cubbossa.menuframework.inventory.implementations.ListMenu} page by page, e.g.
+ * from a database, without blocking the main thread.
+ *
+ * @param <T> The type of the list elements.
+ */
+public interface AsyncListMenuSupplier<T> {
+
+    /**
+     * Requests all elements of one page. The list menu cancels the returned future if the page is no longer needed, so
+     * implementations that complete the future themselves may check {@link CompletableFuture#isCancelled()} to stop
+     * loading early.
+     *
+     * @param page     The page to load, starting at 0.
+     * @param pageSize The amount of elements on one page.
+     * @return A future that completes with up to pageSize elements. Fewer elements mark the last page.
+     */
+    CompletableFuture<List<T>> getPage(int page, int pageSize);
+
+    /**
+     * Called once the page of the element has loaded. This happens off the main thread if the list menu has a display
+     * item pool, see {@link de.cubbossa.menuframework.inventory.implementations.ListMenu#setDisplayItemPool(java.util.concurrent.ForkJoinPool)}.
+     *
+     * @param object The element to display.
+     * @return The icon of the element.
+     */
+    ItemStack getDisplayItem(T object);
+
+    /**
+     * Creates the icons of one loaded page at once. Override it if the icons of a page can be built more efficiently
+     * together.
+     *
+     * @param objects The elements of one page or one batch of a page.
+     * @return The icons of all given elements in the same order.
+     */
+    default List<ItemStack> getDisplayItems(List<T> objects) {
+        return objects.stream().map(this::getDisplayItem).collect(Collectors.toList());
+    }
+
+    /**
+     * @return The icon to display on all list slots of a page that is still loading.
+     */
+    default ItemStack getLoadingItem() {
+        return MenuPresets.LOADING;
+    }
+}
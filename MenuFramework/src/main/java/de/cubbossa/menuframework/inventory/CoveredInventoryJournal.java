@@ -0,0 +1,331 @@
+package de.cubbossa.menuframework.inventory;
+
+import de.cubbossa.menuframework.GUIHandler;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory mapped journal of all player items that are currently covered by a {@link BottomMenu}.
+ * {@link InvMenuHandler} only keeps covered items in memory, so without the journal a crash would delete them.
+ * <br>
+ * Snapshots are taken on the main thread, coalesced per player and written in batches by an async task.
+ * Once the journal mainly consists of outdated snapshots it is compacted into a new file.
+ * Snapshots that are still present when the journal is loaded are restored once the player joins again.
+ */
+public class CoveredInventoryJournal implements Listener {
+
+    private static final int MAGIC = 0x4D464A31;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    @Getter
+    private static CoveredInventoryJournal instance;
+
+    @RequiredArgsConstructor
+    private static class Snapshot {
+        private final long mask;
+        private final ItemStack[] items;
+    }
+
+    private final File file;
+    // Written on the main thread, drained by the flush task. Only the last snapshot per player is kept.
+    private final Map<UUID, Snapshot> pending;
+    // Encoded latest snapshot of every player that still has covered items. Only accessed while flushing.
+    private final Map<UUID, byte[]> live;
+    // Snapshots from the last run that have not been restored yet. Main thread only.
+    private final Map<UUID, Snapshot> restores;
+    private BukkitTask flushTask;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private int liveBytes;
+
+    /**
+     * @param file       the journal file. It will be created if it does not exist.
+     * @param flushTicks the interval in ticks to write pending snapshots to the journal.
+     */
+    public CoveredInventoryJournal(File file, long flushTicks) {
+        instance = this;
+        this.file = file;
+        this.pending = new ConcurrentHashMap<>();
+        this.live = new HashMap<>();
+        this.restores = new HashMap<>();
+
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            map(INITIAL_CAPACITY);
+            replay();
+        } catch (IOException e) {
+            GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Could not load covered inventory journal " + file + ".", e);
+        }
+
+        Bukkit.getPluginManager().registerEvents(this, GUIHandler.getInstance().getPlugin());
+        setFlushTicks(flushTicks);
+
+        Bukkit.getOnlinePlayers().forEach(this::restore);
+    }
+
+    /**
+     * Restarts the flush task with a new interval. Pending snapshots are written with the next flush of the new task.
+     *
+     * @param flushTicks the interval in ticks to write pending snapshots to the journal.
+     */
+    public void setFlushTicks(long flushTicks) {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(GUIHandler.getInstance().getPlugin(), this::flush, flushTicks, flushTicks);
+    }
+
+    /**
+     * Stores the currently covered items of a player. Must be called from the main thread, the items are cloned
+     * immediately and written to the journal with the next flush.
+     *
+     * @param uuid    the uuid of the player whose items are covered.
+     * @param mask    all slots that are currently covered by a bottom menu. 0 if no slot is covered anymore.
+     * @param covered the covered items, indexed by inventory slot.
+     */
+    public void write(UUID uuid, long mask, @Nullable ItemStack[] covered) {
+        ItemStack[] items = new ItemStack[9 * 4];
+        if (covered != null) {
+            for (int slot : BottomMenu.getSlotsFromMask(mask)) {
+                items[slot] = covered[slot] == null ? null : covered[slot].clone();
+            }
+        }
+        pending.put(uuid, new Snapshot(covered == null ? 0 : mask, items));
+    }
+
+    /**
+     * Gives a player back all items that were covered when the journal was last written before a restart.
+     *
+     * @param player the player to restore the items for.
+     */
+    public void restore(Player player) {
+        Snapshot snapshot = restores.remove(player.getUniqueId());
+        if (snapshot == null) {
+            return;
+        }
+        for (int slot : BottomMenu.getSlotsFromMask(snapshot.mask)) {
+            player.getInventory().setItem(slot, snapshot.items[slot]);
+        }
+        write(player.getUniqueId(), 0, null);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        restore(event.getPlayer());
+    }
+
+    /**
+     * Stops the flush task and writes all pending snapshots synchronously.
+     */
+    public void close() {
+        flushTask.cancel();
+        flush();
+        synchronized (this) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Could not close covered inventory journal.", e);
+            }
+            if (buffer != null) {
+                unmap(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    private synchronized void flush() {
+        if (pending.isEmpty() || buffer == null) {
+            return;
+        }
+        try {
+            for (Map.Entry<UUID, Snapshot> entry : pending.entrySet()) {
+                // a newer snapshot has been put in the meantime, it will be written with the next flush.
+                if (!pending.remove(entry.getKey(), entry.getValue())) {
+                    continue;
+                }
+                byte[] record = encode(entry.getKey(), entry.getValue());
+                boolean released = entry.getValue().mask == 0;
+                byte[] previous = released ? live.remove(entry.getKey()) : live.put(entry.getKey(), record);
+                liveBytes += (released ? 0 : RECORD_HEADER_SIZE + record.length)
+                        - (previous == null ? 0 : RECORD_HEADER_SIZE + previous.length);
+                append(record);
+            }
+            if (position > INITIAL_CAPACITY / 2 && position > 2 * (HEADER_SIZE + liveBytes)) {
+                compact();
+            }
+            buffer.force();
+        } catch (IOException e) {
+            GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Could not write covered inventory journal.", e);
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        if (position + RECORD_HEADER_SIZE + record.length > buffer.capacity()) {
+            // The record has already been added to the live records and will be written while compacting.
+            compact();
+            return;
+        }
+        position = writeRecord(buffer, position, record);
+    }
+
+    private void compact() throws IOException {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2 * (HEADER_SIZE + liveBytes)) {
+            capacity <<= 1;
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            target.putInt(0, MAGIC);
+            int at = HEADER_SIZE;
+            for (byte[] record : live.values()) {
+                at = writeRecord(target, at, record);
+            }
+            target.force();
+            unmap(target);
+        }
+        channel.close();
+        // the buffer must not be accessed anymore, the journal stays disabled if the new file cannot be moved.
+        unmap(buffer);
+        buffer = null;
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(capacity);
+        position = HEADER_SIZE + liveBytes;
+    }
+
+    private void map(int capacity) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.max(capacity, channel.size()));
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+        }
+        position = HEADER_SIZE;
+    }
+
+    private void replay() throws IOException {
+        int at = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (at + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(at);
+            // a length of 0 marks the end of the journal, everything else is a torn write from a crash.
+            if (length <= 0 || at + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(at + RECORD_HEADER_SIZE, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(at + Integer.BYTES)) {
+                break;
+            }
+            ByteBuffer header = ByteBuffer.wrap(record);
+            UUID uuid = new UUID(header.getLong(), header.getLong());
+            boolean released = header.getLong() == 0;
+            byte[] previous = released ? live.remove(uuid) : live.put(uuid, record);
+            liveBytes += (released ? 0 : RECORD_HEADER_SIZE + length)
+                    - (previous == null ? 0 : RECORD_HEADER_SIZE + previous.length);
+            at += RECORD_HEADER_SIZE + length;
+        }
+        position = at;
+
+        for (Map.Entry<UUID, byte[]> entry : live.entrySet()) {
+            try {
+                restores.put(entry.getKey(), decode(entry.getValue()));
+            } catch (IOException | ClassNotFoundException e) {
+                GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Could not restore covered items of player " + entry.getKey() + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Releases a mapping immediately instead of with the next garbage collection. Windows does not allow to replace a
+     * file while it is mapped. If the mapping cannot be released, the file is released with the garbage collection.
+     *
+     * @param mapped the buffer to release. It must not be accessed afterwards.
+     */
+    private static void unmap(MappedByteBuffer mapped) {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(unsafe, mapped);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+    }
+
+    private static int writeRecord(ByteBuffer target, int at, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        target.put(at + RECORD_HEADER_SIZE, record);
+        target.putInt(at + Integer.BYTES, (int) crc.getValue());
+        // write length last, a record without length will not be replayed.
+        target.putInt(at, record.length);
+        return at + RECORD_HEADER_SIZE + record.length;
+    }
+
+    private static byte[] encode(UUID uuid, Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeLong(snapshot.mask);
+        if (snapshot.mask != 0) {
+            try (BukkitObjectOutputStream items = new BukkitObjectOutputStream(out)) {
+                for (int slot : BottomMenu.getSlotsFromMask(snapshot.mask)) {
+                    items.writeObject(snapshot.items[slot]);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Snapshot decode(byte[] record) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        in.readLong();
+        in.readLong();
+        long mask = in.readLong();
+        ItemStack[] items = new ItemStack[9 * 4];
+        try (BukkitObjectInputStream stream = new BukkitObjectInputStream(in)) {
+            for (int slot : BottomMenu.getSlotsFromMask(mask)) {
+                items[slot] = (ItemStack) stream.readObject();
+            }
+        }
+        return new Snapshot(mask, items);
+    }
+}
@@ -2,8 +2,10 @@ package de.cubbossa.menuframework.inventory;
 
 import de.cubbossa.menuframework.inventory.listener.MenuListener;
 import lombok.Getter;
+import lombok.Setter;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -11,11 +13,62 @@ public class InvMenuHandler {
 
     private static final long INVENTORY_MASK = (long) Math.pow(2, 37) - 1;
 
+    /**
+     * The parent menus of the top menu a player is navigating, the direct parent on top. The positions of each menu
+     * are kept by identity next to the stack, so that menus are found without searching the stack.
+     */
+    static class Navigation {
+        private final Stack<TopMenu> stack = new Stack<>();
+        // all positions of each menu on the stack, the highest position first
+        private final Map<TopMenu, Deque<Integer>> positions = new IdentityHashMap<>();
+
+        private void push(TopMenu menu) {
+            positions.computeIfAbsent(menu, m -> new ArrayDeque<>()).push(stack.size());
+            stack.push(menu);
+        }
+
+        private void setSize(int size) {
+            while (stack.size() > size) {
+                TopMenu menu = stack.pop();
+                Deque<Integer> menuPositions = positions.get(menu);
+                menuPositions.pop();
+                if (menuPositions.isEmpty()) {
+                    positions.remove(menu);
+                }
+            }
+        }
+
+        /**
+         * @return The highest position of the menu on the stack or -1 if it is not on the stack.
+         */
+        int lastIndexOf(TopMenu menu) {
+            Deque<Integer> menuPositions = positions.get(menu);
+            return menuPositions == null ? -1 : menuPositions.peekFirst();
+        }
+
+        /**
+         * @return The lowest position of the menu on the stack or -1 if it is not on the stack.
+         */
+        int firstIndexOf(TopMenu menu) {
+            Deque<Integer> menuPositions = positions.get(menu);
+            return menuPositions == null ? -1 : menuPositions.peekLast();
+        }
+    }
+
     @Getter
     private static InvMenuHandler instance;
 
     private final Map<UUID, Stack<BottomMenu>> navigationBottomMap;
     private final Map<UUID, ItemStack[]> coveredInventories;
+    private final Map<UUID, Navigation> navigationTopMap;
+
+    /**
+     * How many of the most recent parent menus of each player keep their rendered inventory. Going back to them only
+     * updates slots that changed, parents further down the stack are rendered again.
+     */
+    @Getter
+    @Setter
+    private int renderedParentMenus = 8;
 
     private final Map<UUID, Collection<Menu>> openMenus;
 
@@ -26,6 +79,7 @@ public class InvMenuHandler {
 
         this.navigationBottomMap = new HashMap<>();
         this.coveredInventories = new HashMap<>();
+        this.navigationTopMap = new HashMap<>();
         this.openMenus = new HashMap<>();
         this.listeners = new HashSet<>();
     }
@@ -73,6 +127,7 @@ public class InvMenuHandler {
         if (stack.isEmpty() || stack.peek() != menu) {
             stack.push(menu);
         }
+        journalCoveredSlots(player);
     }
 
     public void closeAllBottomMenus(Player player) {
@@ -138,6 +193,19 @@ public class InvMenuHandler {
         }
 
         menuStack.remove(bottomMenu);
+        journalCoveredSlots(player);
+    }
+
+    private void journalCoveredSlots(Player player) {
+        CoveredInventoryJournal journal = CoveredInventoryJournal.getInstance();
+        if (journal == null) {
+            return;
+        }
+        long coveredMask = 0;
+        for (BottomMenu layered : navigationBottomMap.getOrDefault(player.getUniqueId(), new Stack<>())) {
+            coveredMask = coveredMask | layered.getSlotMask();
+        }
+        journal.write(player.getUniqueId(), coveredMask & INVENTORY_MASK, coveredInventories.get(player.getUniqueId()));
     }
 
     public BottomMenu getMenuAtSlot(Player player, int slot) {
@@ -154,6 +222,66 @@ public class InvMenuHandler {
         return null;
     }
 
+    public Stack<TopMenu> getTopMenuNavigation(Player player) {
+        if (!navigationTopMap.containsKey(player.getUniqueId())) {
+            return new Stack<>();
+        }
+        return (Stack<TopMenu>) navigationTopMap.get(player.getUniqueId()).stack.clone();
+    }
+
+    @Nullable Navigation getNavigation(Player player) {
+        return navigationTopMap.get(player.getUniqueId());
+    }
+
+    /**
+     * Puts a menu on the navigation stack of a player before one of its sub menus is opened.
+     *
+     * @param player The player that opens the sub menu.
+     * @param parent The menu that the sub menu is opened from.
+     */
+    public void pushTopMenu(Player player, TopMenu parent) {
+        Navigation navigation = navigationTopMap.computeIfAbsent(player.getUniqueId(), uuid -> new Navigation());
+        // Drop all menus above the parent of the parent, they belong to a closed or abandoned navigation
+        TopMenu grandParent = parent.getPrevious(player);
+        int index = grandParent == null ? -1 : navigation.lastIndexOf(grandParent);
+        navigation.setSize(index + 1);
+        navigation.push(parent);
+
+        // The least recently shown parent that exceeds the limit gives up its rendered inventory
+        Stack<TopMenu> stack = navigation.stack;
+        if (stack.size() > renderedParentMenus) {
+            TopMenu evicted = stack.get(stack.size() - renderedParentMenus - 1);
+            if (evicted instanceof AbstractMenu) {
+                ((AbstractMenu) evicted).discardRender();
+            }
+        }
+    }
+
+    /**
+     * Removes a menu and all menus above it from the navigation stack of a player, before the menu is opened again.
+     *
+     * @param player The player that navigates back.
+     * @param parent The menu that is opened again.
+     */
+    public void popTopMenu(Player player, TopMenu parent) {
+        Navigation navigation = navigationTopMap.get(player.getUniqueId());
+        if (navigation == null) {
+            return;
+        }
+        int index = navigation.lastIndexOf(parent);
+        if (index == -1) {
+            return;
+        }
+        navigation.setSize(index);
+        if (navigation.stack.isEmpty()) {
+            navigationTopMap.remove(player.getUniqueId());
+        }
+    }
+
+    public void clearTopMenuNavigation(Player player) {
+        navigationTopMap.remove(player.getUniqueId());
+    }
+
     public void registerMenu(Menu menu) {
         listeners.forEach(listener -> listener.register(menu));
     }
@@ -162,6 +290,14 @@ public class InvMenuHandler {
         listeners.forEach(listener -> listener.unregister(menu));
     }
 
+    public void registerViewer(Menu menu, Player player) {
+        listeners.forEach(listener -> listener.registerViewer(menu, player));
+    }
+
+    public void unregisterViewer(Menu menu, Player player) {
+        listeners.forEach(listener -> listener.unregisterViewer(menu, player));
+    }
+
     public void registerListener(MenuListener listener) {
         listeners.add(listener);
     }
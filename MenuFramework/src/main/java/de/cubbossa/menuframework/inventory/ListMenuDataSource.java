@@ -0,0 +1,64 @@
+package de.cubbossa.menuframework.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A random access source of list elements for a {@link de.cubbossa.menuframework.inventory.implementations.ListMenu}.
+ * The list menu only requests the elements of the page that is currently visible, so the source does not have to
+ * hold all elements in memory.
+ *
+ * @param <T> The type of the list elements.
+ */
+public interface ListMenuDataSource<T> {
+
+    /**
+     * @return The total amount of elements.
+     */
+    int size();
+
+    /**
+     * @param index The index of the element, from 0 to {@link #size()} exclusive.
+     * @return The element at the given index.
+     */
+    T get(int index);
+
+    /**
+     * Returns all elements in the given index range. Override this method if the elements of one page can be loaded
+     * more efficiently at once, e.g. with a single database query.
+     *
+     * @param from The first index, inclusive.
+     * @param to   The last index, exclusive.
+     * @return A list of all elements between from and to.
+     */
+    default List<T> slice(int from, int to) {
+        List<T> elements = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            elements.add(get(i));
+        }
+        return elements;
+    }
+
+    /**
+     * @param list The list to wrap. Changes to the list are visible once the list menu is refreshed.
+     * @return A data source that reads from the given list.
+     */
+    static <T> ListMenuDataSource<T> of(List<T> list) {
+        return new ListMenuDataSource<>() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public T get(int index) {
+                return list.get(index);
+            }
+
+            @Override
+            public List<T> slice(int from, int to) {
+                return list.subList(from, to);
+            }
+        };
+    }
+}
@@ -3,10 +3,25 @@ package de.cubbossa.menuframework.inventory;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public interface ListMenuSupplier<T> {
 
     Collection<T> getElements();
 
     ItemStack getDisplayItem(T object);
+
+    /**
+     * Creates the icons of one page at once. List menus call this method off the main thread if a display item pool is
+     * set, see {@link de.cubbossa.menuframework.inventory.implementations.ListMenu#setDisplayItemPool(java.util.concurrent.ForkJoinPool)}.
+     * Override it if the icons of a page can be built more efficiently together, e.g. by loading all head textures
+     * with one request.
+     *
+     * @param objects The elements of one page or one batch of a page.
+     * @return The icons of all given elements in the same order.
+     */
+    default List<ItemStack> getDisplayItems(List<T> objects) {
+        return objects.stream().map(this::getDisplayItem).collect(Collectors.toList());
+    }
 }
@@ -9,6 +9,7 @@ import de.cubbossa.menuframework.inventory.implementations.InventoryMenu;
 import de.cubbossa.menuframework.inventory.implementations.ListMenu;
 import de.cubbossa.menuframework.util.Animation;
 import de.cubbossa.menuframework.util.ItemStackUtils;
+import de.cubbossa.menuframework.util.ObservableCollection;
 import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentLike;
@@ -22,6 +23,7 @@ import org.bukkit.inventory.*;
 
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -41,6 +43,7 @@ public class MenuPresets {
     public static ItemStack DOWN_DISABLED = ItemStackUtils.createItemStack(Material.MAP, Component.text("Down", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false), null);
     public static ItemStack RIGHT_DISABLED = ItemStackUtils.createItemStack(Material.MAP, Component.text("Next", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false), null);
     public static ItemStack LEFT_DISABLED = ItemStackUtils.createItemStack(Material.MAP, Component.text("Previous", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false), null);
+    public static ItemStack LOADING = ItemStackUtils.createItemStack(Material.GRAY_STAINED_GLASS_PANE, Component.text("Loading...", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false), null);
 
     public static ListMenuSupplier<Player> PLAYER_LIST_SUPPLIER = new ListMenuSupplier<Player>() {
         @Override
@@ -399,6 +402,8 @@ public class MenuPresets {
     /**
      * Creates a list menu with all Online Players. The implementation of refresh on join and disconnect needs to be implemented manually.
      * To refresh the current page, call {@link ListMenu#refresh(int...)} for {@link ListMenu#getListSlots()}
+     * For a list menu that updates itself, bind {@link GUIHandler#getOnlinePlayers()} with
+     * {@link #newListMenu(ComponentLike, int, ObservableCollection, Function, Action, ContextConsumer)}
      *
      * @param title        The title of the list menu
      * @param rows         The amount of rows of the list menu
@@ -413,7 +418,9 @@ public class MenuPresets {
     /**
      * Creates a list menu from a supplier and allows viewing, deleting and duplicating elements if the supplier derives from
      * {@link ListMenuManagerSupplier}.
-     * To refresh the current page after adding a new element, call {@link ListMenu#refresh(int...)} for {@link ListMenu#getListSlots()}
+     * The icons of the visible page are built with {@link ListMenuSupplier#getDisplayItems(List)} off the main thread.
+     * To refresh the current page after adding a new element, call {@link ListMenu#invalidateListPage()} and
+     * {@link ListMenu#refresh(int...)} for {@link ListMenu#getListSlots()}
      *
      * @param title        The title of the list menu
      * @param rows         The amount of rows of the list menu
@@ -429,35 +436,89 @@ public class MenuPresets {
         listMenu.addPreset(fillRow(FILLER_DARK, rows - 1));
         listMenu.addPreset(paginationRow(rows - 1, 0, 1, false, Action.LEFT));
 
+        Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers = new HashMap<>();
+        clickHandlers.put(action, clickHandler);
         if (supplier instanceof ListMenuManagerSupplier) {
             ListMenuManagerSupplier<T> manager = (ListMenuManagerSupplier<T>) supplier;
+            clickHandlers.put(Action.MIDDLE, c -> {
+                manager.duplicateElementFromMenu(c.getTarget());
+                listMenu.invalidateListPage();
+                listMenu.refresh(listMenu.getListSlots());
+            });
+            clickHandlers.put(Action.RIGHT, c -> {
+                manager.deleteFromMenu(c.getTarget());
+                listMenu.invalidateListPage();
+                listMenu.refresh(listMenu.getListSlots());
+            });
+        }
+        listMenu.setListSupplier(supplier, clickHandlers);
+        return listMenu;
+    }
 
-            for (T object : supplier.getElements()) {
-                listMenu.addListEntry(Button.builder()
-                        .withItemStack(manager.getDisplayItem(object))
-                        .withClickHandler(action, c -> {
-                            clickHandler.accept(new TargetContext<>(c.getPlayer(), c.getMenu(), c.getSlot(), (Action<? extends TargetContext<T>>) c.getAction(), c.isCancelled(), object));
-                        })
-                        .withClickHandler(Action.MIDDLE, clickContext -> {
-                            manager.duplicateElementFromMenu(object);
-                            listMenu.refresh(listMenu.getListSlots());
-                        })
-                        .withClickHandler(Action.RIGHT, clickContext -> {
-                            manager.deleteFromMenu(object);
-                            listMenu.refresh(listMenu.getListSlots());
-                        }));
-            }
-        } else {
+    /**
+     * Creates a list menu that displays an observable collection, e.g. {@link GUIHandler#getOnlinePlayers()}.
+     * Changes to the collection are pushed to all viewers without refreshing the menu manually. Call
+     * {@link ListMenu#unbindListEntries(ObservableCollection)} once the menu is no longer needed.
+     *
+     * @param title        The title of the list menu
+     * @param rows         The amount of rows of the list menu
+     * @param collection   The collection to display
+     * @param itemSupplier Creates the icon for an element
+     * @param action       The action that triggers the clickhandler.
+     * @param clickHandler The click handler to run when an object icon is clicked.
+     * @param <T>          The type of objects to display in the list menu as itemstacks
+     * @return The instance of the list menu
+     */
+    public static <T> ListMenu newListMenu(ComponentLike title, int rows, ObservableCollection<T> collection, Function<T, ItemStack> itemSupplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        ListMenu listMenu = new ListMenu(title, rows);
+        listMenu.addPreset(fill(FILLER_LIGHT));
+        listMenu.addPreset(fillRow(FILLER_DARK, rows - 1));
+        listMenu.addPreset(paginationRow(rows - 1, 0, 1, false, Action.LEFT));
+        listMenu.bindListEntries(collection, itemSupplier, action, clickHandler);
+        return listMenu;
+    }
 
-            for (T object : supplier.getElements()) {
-                listMenu.addListEntry(Button.builder()
-                        .withItemStack(supplier.getDisplayItem(object))
-                        .withClickHandler(action, c -> {
-                            clickHandler.accept(new TargetContext<>(c.getPlayer(), c.getMenu(), c.getSlot(), (Action<? extends TargetContext<T>>) c.getAction(), c.isCancelled(), object));
-                            clickHandler.accept(new TargetContext<>(c.getPlayer(), c.getMenu(), c.getSlot(), (Action<? extends TargetContext<T>>) c.getAction(), c.isCancelled(), object));
-                        }));
-            }
-        }
+    /**
+     * Creates a list menu that only renders the visible page of a random access data source. Use this for large lists,
+     * the memory usage depends on the amount of list slots instead of the size of the data source.
+     * To refresh the current page after the data source changed, call {@link ListMenu#refresh(int...)} for {@link ListMenu#getListSlots()}
+     *
+     * @param title        The title of the list menu
+     * @param rows         The amount of rows of the list menu
+     * @param source       The source of all list elements
+     * @param itemSupplier Creates the icon for an element of the visible page
+     * @param action       The action that triggers the clickhandler.
+     * @param clickHandler The click handler to run when an object icon is clicked.
+     * @param <T>          The type of objects to display in the list menu as itemstacks
+     * @return The instance of the list menu
+     */
+    public static <T> ListMenu newListMenu(ComponentLike title, int rows, ListMenuDataSource<T> source, Function<T, ItemStack> itemSupplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        ListMenu listMenu = new ListMenu(title, rows);
+        listMenu.addPreset(fill(FILLER_LIGHT));
+        listMenu.addPreset(fillRow(FILLER_DARK, rows - 1));
+        listMenu.addPreset(paginationRow(rows - 1, 0, 1, false, Action.LEFT));
+        listMenu.setListDataSource(source, itemSupplier, action, clickHandler);
+        return listMenu;
+    }
+
+    /**
+     * Creates a list menu that loads its pages from an async supplier. The menu opens immediately and displays
+     * {@link AsyncListMenuSupplier#getLoadingItem()} until the visible page has loaded. Adjacent pages are prefetched.
+     *
+     * @param title        The title of the list menu
+     * @param rows         The amount of rows of the list menu
+     * @param supplier     The supplier that loads the pages and defines how to display the provided type of objects
+     * @param action       The action that triggers the clickhandler.
+     * @param clickHandler The click handler to run when an object icon is clicked.
+     * @param <T>          The type of objects to display in the list menu as itemstacks
+     * @return The instance of the list menu
+     */
+    public static <T> ListMenu newListMenu(ComponentLike title, int rows, AsyncListMenuSupplier<T> supplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        ListMenu listMenu = new ListMenu(title, rows);
+        listMenu.addPreset(fill(FILLER_LIGHT));
+        listMenu.addPreset(fillRow(FILLER_DARK, rows - 1));
+        listMenu.addPreset(paginationRow(rows - 1, 0, 1, false, Action.LEFT));
+        listMenu.setListSupplier(supplier, action, clickHandler);
         return listMenu;
     }
 
@@ -1,6 +1,7 @@
 package de.cubbossa.menuframework.inventory;
 
 import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.nms.NmsAdapter;
 import de.cubbossa.menuframework.util.ChatUtils;
 import de.cubbossa.menuframework.util.InventoryUpdate;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import org.bukkit.inventory.Inventory;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
@@ -23,17 +25,27 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
     protected final Map<UUID, TopMenu> previous;
     private Component title;
     private final Map<Integer, Component> pageTitles;
+    // the serialized title of each page, the default title is stored with key null
+    private final Map<Integer, String> legacyTitles;
+    // the title that is currently displayed to each viewer and the title to display at the end of the tick
+    private final Map<UUID, String> shownTitles;
+    private final Map<UUID, String> pendingTitles;
+    private boolean titleUpdateScheduled = false;
 
     public TopInventoryMenu(ComponentLike title, int slotsPerPage) {
         super(slotsPerPage);
         this.title = title.asComponent();
         this.pageTitles = new TreeMap<>();
+        this.legacyTitles = new HashMap<>();
+        this.shownTitles = new HashMap<>();
+        this.pendingTitles = new LinkedHashMap<>();
         this.previous = new HashMap<>();
     }
 
     public TopMenu openSubMenu(Player player, TopMenu menu) {
         GUIHandler.getInstance().callSynchronized(() -> {
             handleClose(player);
+            InvMenuHandler.getInstance().pushTopMenu(player, this);
             menu.setPrevious(player, this);
             menu.open(player);
         });
@@ -55,6 +67,7 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
     public TopMenu openSubMenu(Player player, TopMenu menu, ViewMode viewMode, MenuPreset<?> backPreset) {
         GUIHandler.getInstance().callSynchronized(() -> {
             handleClose(player);
+            InvMenuHandler.getInstance().pushTopMenu(player, this);
             menu.setPrevious(player, this);
             menu.addPreset(backPreset);
             menu.open(player);
@@ -80,6 +93,13 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
     public boolean isPrevious(TopMenu menu, Player player) {
 
         TopMenu current = this.getPrevious(player);
+        InvMenuHandler.Navigation navigation = InvMenuHandler.getInstance().getNavigation(player);
+        int index = current == null || navigation == null ? -1 : navigation.lastIndexOf(current);
+        if (index != -1) {
+            // The navigation stack holds all parents below the direct parent, no need to walk the chain
+            int menuIndex = navigation.firstIndexOf(menu);
+            return menuIndex != -1 && menuIndex <= index;
+        }
         while (current != null && current.getPrevious(player) != null) {
             if (current.equals(menu)) {
                 return true;
@@ -94,11 +114,21 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
         return menu.isPrevious(this, player);
     }
 
+    /**
+     * Opens the previous menu again. If it still holds its rendered inventory, it is displayed without rendering and
+     * only slots that were refreshed while it was hidden are updated.
+     */
     public void openPreviousMenu(Player viewer) {
         handleClose(viewer);
 
-        Menu previous = this.previous.remove(viewer.getUniqueId());
-        if (previous != null) {
+        TopMenu previous = this.previous.remove(viewer.getUniqueId());
+        if (previous == null) {
+            return;
+        }
+        InvMenuHandler.getInstance().popTopMenu(viewer, previous);
+        if (previous instanceof AbstractMenu) {
+            GUIHandler.getInstance().callSynchronized(() -> ((AbstractMenu) previous).openRenderedSync(viewer, ViewMode.MODIFY));
+        } else {
             previous.open(viewer, ViewMode.MODIFY);
         }
     }
@@ -106,17 +136,26 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
     @Override
     public void setPage(Player player, int page) {
         super.setPage(player, page);
-        updateCurrentInventoryTitle(getTitle(page));
+        updateCurrentInventoryTitle(getLegacyTitle(page));
     }
 
     public Component getTitle(int page) {
         return pageTitles.getOrDefault(page, title);
     }
 
+    /**
+     * @return The title of the given page serialized to legacy text. It is only serialized again if the title changes.
+     */
+    public String getLegacyTitle(int page) {
+        Integer key = pageTitles.containsKey(page) ? page : null;
+        return legacyTitles.computeIfAbsent(key, k -> ChatUtils.toLegacy(getTitle(page)));
+    }
+
     public void updateTitle(ComponentLike title) {
         this.title = title.asComponent();
+        legacyTitles.remove(null);
         if (!pageTitles.containsKey(getCurrentPage())) {
-            updateCurrentInventoryTitle(title);
+            updateCurrentInventoryTitle(getLegacyTitle(getCurrentPage()));
         }
     }
 
@@ -124,21 +163,55 @@ public abstract class TopInventoryMenu extends AbstractMenu implements TopMenu {
         int currentPage = getCurrentPage();
         for (int page : pages) {
             pageTitles.put(page, title.asComponent());
+            legacyTitles.remove(page);
             if (currentPage == page) {
-                updateCurrentInventoryTitle(title);
+                updateCurrentInventoryTitle(getLegacyTitle(page));
             }
         }
     }
 
-    private void updateCurrentInventoryTitle(ComponentLike title) {
+    /**
+     * Queues the title for all viewers. Updating a title resends the whole inventory, so all updates of one tick are
+     * collapsed to the last title and viewers that already see it are skipped.
+     */
+    private void updateCurrentInventoryTitle(String title) {
+        for (UUID uuid : viewer.keySet()) {
+            pendingTitles.put(uuid, title);
+        }
+        if (!titleUpdateScheduled && !pendingTitles.isEmpty()) {
+            titleUpdateScheduled = true;
+            Bukkit.getScheduler().runTask(GUIHandler.getInstance().getPlugin(), this::flushTitleUpdates);
+        }
+    }
 
-        String name = ChatUtils.toLegacy(title);
-        viewer.keySet().stream().map(Bukkit::getPlayer).forEach(player ->
-                InventoryUpdate.updateInventory(GUIHandler.getInstance().getPlugin(), player, name));
+    private void flushTitleUpdates() {
+        titleUpdateScheduled = false;
+        NmsAdapter nmsAdapter = GUIHandler.getInstance().getNmsAdapter();
+        for (Map.Entry<UUID, String> entry : pendingTitles.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null || !viewer.containsKey(entry.getKey()) || entry.getValue().equals(shownTitles.get(entry.getKey()))) {
+                continue;
+            }
+            if (nmsAdapter != null) {
+                nmsAdapter.updateInventoryTitle(player, entry.getValue());
+            } else {
+                InventoryUpdate.updateInventory(GUIHandler.getInstance().getPlugin(), player, entry.getValue());
+            }
+            shownTitles.put(entry.getKey(), entry.getValue());
+        }
+        pendingTitles.clear();
     }
 
     @Override
     protected void openInventory(Player player, Inventory inventory) {
         player.openInventory(inventory);
+        shownTitles.put(player.getUniqueId(), player.getOpenInventory().getTitle());
+    }
+
+    @Override
+    public void handleClose(Player viewer) {
+        super.handleClose(viewer);
+        shownTitles.remove(viewer.getUniqueId());
+        pendingTitles.remove(viewer.getUniqueId());
     }
 }
@@ -1,7 +1,6 @@
 package de.cubbossa.menuframework.inventory.implementations;
 
 import de.cubbossa.menuframework.inventory.TopInventoryMenu;
-import de.cubbossa.menuframework.util.ChatUtils;
 import lombok.Getter;
 import net.kyori.adventure.text.ComponentLike;
 import org.bukkit.Bukkit;
@@ -48,6 +47,6 @@ public class InventoryMenu extends TopInventoryMenu {
 
     @Override
     public Inventory createInventory(Player player, int page) {
-        return Bukkit.createInventory(null, inventoryType, ChatUtils.toLegacy(getTitle(page)));
+        return Bukkit.createInventory(null, inventoryType, getLegacyTitle(page));
     }
 }
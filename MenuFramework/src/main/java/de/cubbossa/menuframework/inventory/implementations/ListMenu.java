@@ -2,20 +2,35 @@ package de.cubbossa.menuframework.inventory.implementations;
 
 import de.cubbossa.menuframework.GUIHandler;
 import de.cubbossa.menuframework.inventory.Action;
-import de.cubbossa.menuframework.inventory.BottomMenu;
+import de.cubbossa.menuframework.inventory.AsyncListMenuSupplier;
 import de.cubbossa.menuframework.inventory.Button;
+import de.cubbossa.menuframework.inventory.ListMenuDataSource;
+import de.cubbossa.menuframework.inventory.ListMenuSupplier;
+import de.cubbossa.menuframework.inventory.MenuPresets;
 import de.cubbossa.menuframework.inventory.context.ContextConsumer;
 import de.cubbossa.menuframework.inventory.context.TargetContext;
-import lombok.AllArgsConstructor;
+import de.cubbossa.menuframework.inventory.exception.ItemPlaceException;
+import de.cubbossa.menuframework.util.ListIndex;
+import de.cubbossa.menuframework.util.ObservableCollection;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import net.kyori.adventure.text.ComponentLike;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -25,17 +40,506 @@ public class ListMenu extends RectInventoryMenu {
 
     @Getter
     @Setter
-    @AllArgsConstructor
     public static class ListElement {
         private Supplier<ItemStack> itemSupplier;
         private Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> clickHandlers;
+        /**
+         * The object that this element displays. Sorts, filters and the search of the list menu are applied to it.
+         */
+        private @Nullable Object target;
+
+        public ListElement(Supplier<ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> clickHandlers) {
+            this(itemSupplier, clickHandlers, null);
+        }
+
+        public ListElement(Supplier<ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> clickHandlers, @Nullable Object target) {
+            this.itemSupplier = itemSupplier;
+            this.clickHandlers = clickHandlers;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Provides the elements of the visible page if the list menu is not backed by list entries.
+     */
+    @RequiredArgsConstructor
+    private abstract static class ListView<T> {
+        protected final Function<T, ItemStack> itemSupplier;
+        protected final Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers;
+
+        abstract @Nullable T get(int page, int pageIndex, int pageSize);
+
+        abstract int getMaxPage(int currentPage, int pageSize);
+
+        @Nullable ItemStack getItemStack(int page, int pageIndex, int pageSize) {
+            T element = get(page, pageIndex, pageSize);
+            return element == null ? null : itemSupplier.apply(element);
+        }
+
+        void onRender(int page, int pageSize) {
+        }
+
+        /**
+         * @param pageIndices the indices within the page of all refreshed list slots
+         */
+        void onRefresh(int page, int pageSize, int[] pageIndices) {
+        }
+
+        void invalidate() {
+        }
+
+        void close() {
+        }
+    }
+
+    private static class DataSourceView<T> extends ListView<T> {
+        private final ListMenuDataSource<T> source;
+        private int cachedPage = -1;
+        private List<T> cachedElements = Collections.emptyList();
+
+        DataSourceView(ListMenuDataSource<T> source, Function<T, ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+            super(itemSupplier, clickHandlers);
+            this.source = source;
+        }
+
+        @Override
+        @Nullable T get(int page, int pageIndex, int pageSize) {
+            if (cachedPage != page) {
+                int from = Integer.min(page * pageSize, source.size());
+                cachedElements = source.slice(from, Integer.min(from + pageSize, source.size()));
+                cachedPage = page;
+            }
+            return pageIndex < cachedElements.size() ? cachedElements.get(pageIndex) : null;
+        }
+
+        @Override
+        int getMaxPage(int currentPage, int pageSize) {
+            return (int) Math.floor((double) source.size() / pageSize);
+        }
+
+        @Override
+        void onRender(int page, int pageSize) {
+            invalidate();
+        }
+
+        @Override
+        void onRefresh(int page, int pageSize, int[] pageIndices) {
+            invalidate();
+        }
+
+        @Override
+        void invalidate() {
+            cachedPage = -1;
+            cachedElements = Collections.emptyList();
+        }
+    }
+
+    private class AsyncView<T> extends ListView<T> {
+        private final AsyncListMenuSupplier<T> supplier;
+        private final Map<Integer, CompletableFuture<List<T>>> pages = new HashMap<>();
+        private final Map<Integer, List<ItemStack>> pageItems = new HashMap<>();
+        // The first page that is known to contain the last element.
+        private int lastPage = Integer.MAX_VALUE;
+
+        AsyncView(AsyncListMenuSupplier<T> supplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+            super(supplier::getDisplayItem, clickHandlers);
+            this.supplier = supplier;
+        }
+
+        @Override
+        @Nullable T get(int page, int pageIndex, int pageSize) {
+            CompletableFuture<List<T>> future = request(page, pageSize);
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                return null;
+            }
+            List<T> elements = future.join();
+            return pageIndex < elements.size() ? elements.get(pageIndex) : null;
+        }
+
+        @Override
+        @Nullable ItemStack getItemStack(int page, int pageIndex, int pageSize) {
+            CompletableFuture<List<T>> future = request(page, pageSize);
+            if (!future.isDone()) {
+                return supplier.getLoadingItem();
+            }
+            if (future.isCompletedExceptionally() || pageIndex >= future.join().size()) {
+                return null;
+            }
+            List<ItemStack> items = pageItems.get(page);
+            return items == null ? supplier.getLoadingItem() : items.get(pageIndex);
+        }
+
+        @Override
+        int getMaxPage(int currentPage, int pageSize) {
+            return lastPage == Integer.MAX_VALUE ? currentPage + 1 : lastPage;
+        }
+
+        @Override
+        void onRender(int page, int pageSize) {
+            // cancel all fetches that are not adjacent to the new page, the player paged away from them.
+            pages.entrySet().removeIf(entry -> {
+                if (Math.abs(entry.getKey() - page) <= 1) {
+                    return false;
+                }
+                entry.getValue().cancel(true);
+                pageItems.remove(entry.getKey());
+                return true;
+            });
+            request(page, pageSize);
+            if (page > 0) {
+                request(page - 1, pageSize);
+            }
+            if (page < lastPage) {
+                request(page + 1, pageSize);
+            }
+        }
+
+        @Override
+        void invalidate() {
+            close();
+            lastPage = Integer.MAX_VALUE;
+        }
+
+        @Override
+        void close() {
+            pages.values().forEach(future -> future.cancel(true));
+            pages.clear();
+            pageItems.clear();
+        }
+
+        private CompletableFuture<List<T>> request(int page, int pageSize) {
+            CompletableFuture<List<T>> future = pages.get(page);
+            if (future != null) {
+                return future;
+            }
+            CompletableFuture<List<T>> requested = page > lastPage ?
+                    CompletableFuture.completedFuture(Collections.emptyList()) :
+                    supplier.getPage(page, pageSize);
+            pages.put(page, requested);
+            if (requested.isDone()) {
+                handleLoaded(page, pageSize, requested, false);
+            } else {
+                requested.whenComplete((elements, throwable) -> GUIHandler.getInstance().callSynchronized(() ->
+                        handleLoaded(page, pageSize, requested, true)));
+            }
+            return requested;
+        }
+
+        private void handleLoaded(int page, int pageSize, CompletableFuture<List<T>> future, boolean refresh) {
+            // the page was cancelled or invalidated while loading
+            if (pages.get(page) != future || future.isCancelled()) {
+                return;
+            }
+            List<T> elements;
+            try {
+                elements = future.join();
+            } catch (CancellationException e) {
+                return;
+            } catch (CompletionException e) {
+                GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error occured while loading page " + page + " of list menu " + ListMenu.this.getClass(), e.getCause());
+                return;
+            }
+            int previousLastPage = lastPage;
+            if (elements.size() < pageSize) {
+                lastPage = Integer.min(lastPage, elements.isEmpty() && page > 0 ? page - 1 : page);
+            }
+            CompletableFuture<List<ItemStack>> items = buildDisplayItems(elements, supplier::getDisplayItems);
+            if (items.isDone()) {
+                handleBuilt(page, future, items);
+            } else {
+                items.whenComplete((stacks, throwable) -> GUIHandler.getInstance().callSynchronized(() -> {
+                    if (handleBuilt(page, future, items) && !viewer.isEmpty() && page == getCurrentPage()) {
+                        ListMenu.super.refresh(listSlots);
+                    }
+                }));
+            }
+            if (refresh && !viewer.isEmpty() && (page == getCurrentPage() || lastPage != previousLastPage)) {
+                // also re-apply presets, the loaded page might have changed the max page for pagination icons.
+                try {
+                    refreshDynamicItemSuppliers();
+                } catch (ItemPlaceException e) {
+                    GUIHandler.getInstance().getExceptionHandler().accept(e);
+                }
+                ListMenu.super.refresh(getSlots());
+            }
+        }
+
+        private boolean handleBuilt(int page, CompletableFuture<List<T>> future, CompletableFuture<List<ItemStack>> items) {
+            // the page was cancelled or invalidated while building the icons
+            if (pages.get(page) != future) {
+                return false;
+            }
+            List<ItemStack> stacks = joinDisplayItems(items);
+            if (stacks == null) {
+                return false;
+            }
+            pageItems.put(page, stacks);
+            return true;
+        }
     }
 
+    /**
+     * Reads the elements of a {@link ListMenuSupplier} and builds the icons of the visible page in one batch.
+     */
+    private class SupplierView<T> extends ListView<T> {
+        private final ListMenuSupplier<T> supplier;
+        private @Nullable List<T> elements = null;
+        private int page = -1;
+        private List<T> pageElements = Collections.emptyList();
+        private @Nullable List<ItemStack> items = null;
+        // the icons of the page before it was invalidated, displayed until the new icons are built.
+        private @Nullable List<ItemStack> previousItems = null;
+        private int previousPage = -1;
+        private @Nullable CompletableFuture<List<ItemStack>> building = null;
+
+        SupplierView(ListMenuSupplier<T> supplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+            super(supplier::getDisplayItem, clickHandlers);
+            this.supplier = supplier;
+        }
+
+        private List<T> elements() {
+            if (elements == null) {
+                elements = new ArrayList<>(supplier.getElements());
+            }
+            return elements;
+        }
+
+        @Override
+        @Nullable T get(int page, int pageIndex, int pageSize) {
+            loadPage(page, pageSize);
+            return pageIndex < pageElements.size() ? pageElements.get(pageIndex) : null;
+        }
+
+        @Override
+        @Nullable ItemStack getItemStack(int page, int pageIndex, int pageSize) {
+            loadPage(page, pageSize);
+            if (pageIndex >= pageElements.size()) {
+                return null;
+            }
+            if (items != null) {
+                return items.get(pageIndex);
+            }
+            return previousItems != null && pageIndex < previousItems.size() ? previousItems.get(pageIndex) : MenuPresets.LOADING;
+        }
+
+        @Override
+        int getMaxPage(int currentPage, int pageSize) {
+            return (int) Math.floor((double) elements().size() / pageSize);
+        }
+
+        @Override
+        void onRender(int page, int pageSize) {
+            invalidate();
+        }
+
+        @Override
+        void onRefresh(int page, int pageSize, int[] pageIndices) {
+            if (pageIndices.length == 0 || this.page != page) {
+                return;
+            }
+            if (items == null) {
+                // the icons of the page are still being built and might miss the change, build them again
+                close();
+                loadPage(page, pageSize);
+                return;
+            }
+            // only rebuild the icons of the refreshed slots, the other icons of the page stay valid
+            int[] indices = Arrays.stream(pageIndices).filter(index -> index < pageElements.size()).toArray();
+            List<T> refreshed = Arrays.stream(indices).mapToObj(pageElements::get).collect(Collectors.toList());
+            List<ItemStack> pageItems = items;
+            CompletableFuture<List<ItemStack>> future = buildDisplayItems(refreshed, supplier::getDisplayItems);
+            if (future.isDone()) {
+                applyRefreshed(pageItems, indices, future);
+                return;
+            }
+            future.whenComplete((stacks, throwable) -> GUIHandler.getInstance().callSynchronized(() -> {
+                if (applyRefreshed(pageItems, indices, future) && !viewer.isEmpty() && page == getCurrentPage()) {
+                    ListMenu.super.refresh(Arrays.stream(indices).map(index -> listSlots[index]).toArray());
+                }
+            }));
+        }
+
+        private boolean applyRefreshed(List<ItemStack> pageItems, int[] indices, CompletableFuture<List<ItemStack>> future) {
+            // the page was rebuilt or left in the meantime
+            if (items != pageItems) {
+                return false;
+            }
+            List<ItemStack> stacks = joinDisplayItems(future);
+            if (stacks == null) {
+                return false;
+            }
+            for (int i = 0; i < indices.length; i++) {
+                pageItems.set(indices[i], stacks.get(i));
+            }
+            return true;
+        }
+
+        @Override
+        void invalidate() {
+            if (items != null) {
+                previousItems = items;
+                previousPage = page;
+            }
+            close();
+            elements = null;
+        }
+
+        @Override
+        void close() {
+            if (building != null) {
+                building.cancel(true);
+                building = null;
+            }
+            items = null;
+            page = -1;
+        }
+
+        private void loadPage(int page, int pageSize) {
+            if (this.page == page) {
+                return;
+            }
+            if (previousPage != page) {
+                previousItems = null;
+            }
+            close();
+            this.page = page;
+            List<T> elements = elements();
+            int from = Integer.min(page * pageSize, elements.size());
+            pageElements = new ArrayList<>(elements.subList(from, Integer.min(from + pageSize, elements.size())));
+            CompletableFuture<List<ItemStack>> future = buildDisplayItems(pageElements, supplier::getDisplayItems);
+            building = future;
+            if (future.isDone()) {
+                handleBuilt(future);
+                return;
+            }
+            future.whenComplete((stacks, throwable) -> GUIHandler.getInstance().callSynchronized(() -> {
+                if (handleBuilt(future) && !viewer.isEmpty() && page == getCurrentPage()) {
+                    ListMenu.super.refresh(listSlots);
+                }
+            }));
+        }
+
+        private boolean handleBuilt(CompletableFuture<List<ItemStack>> future) {
+            if (building != future) {
+                return false;
+            }
+            building = null;
+            List<ItemStack> stacks = joinDisplayItems(future);
+            // copied, so that refreshed slots can replace single icons
+            items = stacks == null ? null : new ArrayList<>(stacks);
+            previousItems = null;
+            return items != null;
+        }
+    }
+
+    /**
+     * Mirrors an observable collection into list entries and pushes each change only to the slots that display it.
+     */
+    private class Binding<T> implements ObservableCollection.Observer<T> {
+        private final ObservableCollection<T> collection;
+        private final Function<T, ItemStack> itemSupplier;
+        private final Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers;
+        private final Map<T, ListElement> elements = new HashMap<>();
+
+        Binding(ObservableCollection<T> collection, Function<T, ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+            this.collection = collection;
+            this.itemSupplier = itemSupplier;
+            this.clickHandlers = clickHandlers;
+        }
+
+        private ListElement createElement(T object) {
+            Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> handlers = new HashMap<>();
+            clickHandlers.forEach((action, handler) -> handlers.put(action, (ContextConsumer<TargetContext<?>>) c -> {
+                TargetContext<T> context = TargetContext.recreate(c, object);
+                handler.accept(context);
+                c.setCancelled(context.isCancelled());
+            }));
+            return new ListElement(() -> itemSupplier.apply(object), handlers, object);
+        }
+
+        void bind() {
+            collection.subscribe(this);
+            for (T object : collection) {
+                ListElement element = createElement(object);
+                elements.put(object, element);
+                listElements.add(element);
+            }
+        }
+
+        void unbind() {
+            collection.unsubscribe(this);
+            elements.values().forEach(listElements::remove);
+            elements.clear();
+        }
+
+        @Override
+        public void onAdd(T object) {
+            if (elements.containsKey(object)) {
+                return;
+            }
+            ListElement element = createElement(object);
+            elements.put(object, element);
+            int maxPage = getMaxPage();
+            listElements.add(element);
+            refreshListIndices(listElements.indexOf(element), Integer.MAX_VALUE, maxPage);
+        }
+
+        @Override
+        public void onRemove(T object) {
+            ListElement element = elements.remove(object);
+            if (element == null) {
+                return;
+            }
+            int maxPage = getMaxPage();
+            int index = listElements.indexOf(element);
+            listElements.remove(element);
+            refreshListIndices(index, Integer.MAX_VALUE, maxPage);
+        }
+
+        @Override
+        public void onUpdate(T object) {
+            ListElement element = elements.get(object);
+            if (element == null) {
+                return;
+            }
+            int maxPage = getMaxPage();
+            int previousIndex = listElements.indexOf(element);
+            listElements.update(element);
+            int index = listElements.indexOf(element);
+            if (previousIndex == -1 || index == -1) {
+                // the element appeared or disappeared due to filters, all following elements shift.
+                refreshListIndices(Integer.max(previousIndex, index), Integer.MAX_VALUE, maxPage);
+            } else {
+                refreshListIndices(Integer.min(previousIndex, index), Integer.max(previousIndex, index) + 1, maxPage);
+            }
+        }
+    }
+
+    /**
+     * All slots of one page that display list elements.
+     */
     @Getter
     private final int[] listSlots;
-    private final long listSlotMask;
-    private final List<ListElement> listElements;
-    private int listSlotCount;
+    // -1 = no list slot, every other number is the index of the slot within one page of list elements.
+    private final int[] listSlotIndices;
+    private final ListIndex<ListElement> listElements;
+    private final int listSlotCount;
+    private @Nullable ListView<?> listView = null;
+    private final List<Binding<?>> bindings = new ArrayList<>();
+    /**
+     * The pool to build the icons of list suppliers in. If null, icons are built on the main thread while rendering.
+     * Only set a pool if the display items of all list suppliers of this menu can be built off the main thread,
+     * e.g. if they do not access the Bukkit API.
+     */
+    @Getter
+    @Setter
+    private @Nullable ForkJoinPool displayItemPool = null;
+    /**
+     * The amount of icons that are built in one task of the display item pool. If 0 or less, each page is built in one task.
+     */
+    @Getter
+    @Setter
+    private int displayItemBatchSize = 0;
 
     /**
      * Creates a new chest list menu with the given count of rows
@@ -49,33 +553,32 @@ public class ListMenu extends RectInventoryMenu {
         if (listSlots.length == 0) {
             listSlots = IntStream.range(0, (rows - 1) * 9).toArray();
         }
-        this.listSlotMask = BottomMenu.getMaskFromSlots(listSlots);
-        this.listSlotCount = listSlots.length;
-        this.listSlots = new int[listSlotCount];
+        this.listSlots = Arrays.stream(listSlots).filter(s -> s >= 0 && s < slotsPerPage).distinct().sorted().toArray();
+        this.listSlotCount = this.listSlots.length;
+        this.listSlotIndices = new int[slotsPerPage];
         this.setupListTable();
-        this.listElements = new ArrayList<>();
+        this.listElements = new ListIndex<>();
     }
 
     private void setupListTable() {
-        // -1 = no list slot, every other number means how many slots to subtract
-        int sub = 0;
+        Arrays.fill(listSlotIndices, -1);
         for (int i = 0; i < listSlots.length; i++) {
-            if (isListSlot(i)) {
-                listSlots[i] = sub++;
-            } else {
-                listSlots[i] = -1;
-            }
+            listSlotIndices[listSlots[i]] = i;
         }
     }
 
     private boolean isListSlot(int slot) {
-        return (listSlotMask >> (slot % slotsPerPage) & 1) == 1;
+        return getPageIndex(slot) != -1;
+    }
+
+    private int getPageIndex(int slot) {
+        return listSlotIndices[Math.floorMod(slot, slotsPerPage)];
     }
 
     private ListElement getListElement(int slot) {
-        int listSlots = listSlotCount * (offset / slotsPerPage);
-        int listSlot = this.listSlots[slot % slotsPerPage];
-        return listSlot == -1 || listSlot + listSlots >= listElements.size() ? null : listElements.get(listSlot + listSlots);
+        int listSlot = getPageIndex(slot);
+        int index = listSlotCount * getCurrentPage() + listSlot;
+        return listSlot == -1 || index >= listElements.size() ? null : listElements.get(index);
     }
 
     @Override
@@ -83,6 +586,9 @@ public class ListMenu extends RectInventoryMenu {
         if (!isListSlot(slot)) {
             return null;
         }
+        if (listView != null) {
+            return listView.getItemStack(getCurrentPage(), getPageIndex(slot), listSlotCount);
+        }
         ListElement element = getListElement(slot);
         if (element == null || element.itemSupplier == null) {
             return null;
@@ -92,9 +598,12 @@ public class ListMenu extends RectInventoryMenu {
 
     @Override
     protected ContextConsumer<? extends TargetContext<?>> getStaticClickHandler(int slot, Action<?> action) {
-        if(!isListSlot(slot)) {
+        if (!isListSlot(slot)) {
             return null;
         }
+        if (listView != null) {
+            return getViewClickHandler(listView, slot, action);
+        }
         ListElement element = getListElement(slot);
         if (element == null || element.clickHandlers == null) {
             return null;
@@ -102,6 +611,299 @@ public class ListMenu extends RectInventoryMenu {
         return element.clickHandlers.get(action);
     }
 
+    private <T> ContextConsumer<? extends TargetContext<?>> getViewClickHandler(ListView<T> view, int slot, Action<?> action) {
+        ContextConsumer<TargetContext<T>> handler = view.clickHandlers.get(action);
+        if (handler == null) {
+            return null;
+        }
+        T element = view.get(getCurrentPage(), getPageIndex(slot), listSlotCount);
+        if (element == null) {
+            return null;
+        }
+        return (ContextConsumer<TargetContext<?>>) c -> {
+            TargetContext<T> context = TargetContext.recreate(c, element);
+            handler.accept(context);
+            c.setCancelled(context.isCancelled());
+        };
+    }
+
+    @Override
+    public void render(Player viewer, boolean clear) throws ItemPlaceException {
+        if (listView != null) {
+            listView.onRender(getCurrentPage(), listSlotCount);
+        }
+        super.render(viewer, clear);
+    }
+
+    @Override
+    public void openRenderedSync(Player viewer, ViewMode viewMode) {
+        // the list view was closed with the last viewer and only requests its elements again with a full render
+        if (listView != null) {
+            openSync(viewer, viewMode);
+            return;
+        }
+        super.openRenderedSync(viewer, viewMode);
+    }
+
+    @Override
+    public void refresh(int... slots) {
+        if (listView != null) {
+            int[] pageIndices = Arrays.stream(slots).map(this::getPageIndex).filter(index -> index != -1).toArray();
+            listView.onRefresh(getCurrentPage(), listSlotCount, pageIndices);
+        }
+        super.refresh(slots);
+    }
+
+    @Override
+    public void handleClose(Player viewer) {
+        super.handleClose(viewer);
+        if (listView != null && this.viewer.isEmpty()) {
+            listView.close();
+        }
+    }
+
+    /**
+     * Drops all cached elements, so that they will be requested again with the next render.
+     */
+    public void invalidateListPage() {
+        if (listView != null) {
+            listView.invalidate();
+        }
+    }
+
+    /**
+     * Backs this list menu by a random access data source instead of list entries. Only the elements of the visible page
+     * are requested from the source and rendered, so the memory usage does not depend on the size of the source.
+     * All list entries that were added with {@link #addListEntry(Button)} are ignored while a data source is set.
+     *
+     * @param source       The source to read the list elements from.
+     * @param itemSupplier Creates the icon for an element of the visible page.
+     * @param action       The action that triggers the click handler.
+     * @param clickHandler The click handler for all elements. It receives the clicked element as target.
+     * @param <T>          The type of the list elements.
+     */
+    public <T> void setListDataSource(ListMenuDataSource<T> source, Function<T, ItemStack> itemSupplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        Map<Action<?>, ContextConsumer<TargetContext<T>>> map = new HashMap<>();
+        map.put(action, clickHandler);
+        setListDataSource(source, itemSupplier, map);
+    }
+
+    /**
+     * Backs this list menu by a random access data source instead of list entries. Only the elements of the visible page
+     * are requested from the source and rendered, so the memory usage does not depend on the size of the source.
+     * All list entries that were added with {@link #addListEntry(Button)} are ignored while a data source is set.
+     *
+     * @param source        The source to read the list elements from.
+     * @param itemSupplier  Creates the icon for an element of the visible page.
+     * @param clickHandlers The click handlers that are shared by all elements. They receive the clicked element as target.
+     * @param <T>           The type of the list elements.
+     */
+    public <T> void setListDataSource(ListMenuDataSource<T> source, Function<T, ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+        setListView(new DataSourceView<>(source, itemSupplier, clickHandlers));
+    }
+
+    /**
+     * Backs this list menu by an async paged supplier. Pages are requested when they become visible and the adjacent pages
+     * are prefetched. Until a page has loaded, its list slots display {@link AsyncListMenuSupplier#getLoadingItem()}.
+     * Fetches of pages that are no longer adjacent to the visible page are cancelled, as well as all fetches once the
+     * last viewer closed the menu.
+     *
+     * @param supplier     The supplier to load the pages from.
+     * @param action       The action that triggers the click handler.
+     * @param clickHandler The click handler for all elements. It receives the clicked element as target.
+     * @param <T>          The type of the list elements.
+     */
+    public <T> void setListSupplier(AsyncListMenuSupplier<T> supplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        Map<Action<?>, ContextConsumer<TargetContext<T>>> map = new HashMap<>();
+        map.put(action, clickHandler);
+        setListSupplier(supplier, map);
+    }
+
+    /**
+     * Backs this list menu by an async paged supplier. Pages are requested when they become visible and the adjacent pages
+     * are prefetched. Until a page has loaded, its list slots display {@link AsyncListMenuSupplier#getLoadingItem()}.
+     * Fetches of pages that are no longer adjacent to the visible page are cancelled, as well as all fetches once the
+     * last viewer closed the menu.
+     *
+     * @param supplier      The supplier to load the pages from.
+     * @param clickHandlers The click handlers that are shared by all elements. They receive the clicked element as target.
+     * @param <T>           The type of the list elements.
+     */
+    public <T> void setListSupplier(AsyncListMenuSupplier<T> supplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+        setListView(new AsyncView<>(supplier, clickHandlers));
+    }
+
+    /**
+     * Backs this list menu by a list supplier. The elements are read from the supplier with each render and
+     * {@link #invalidateListPage()}, and the icons of the visible page are built with
+     * {@link ListMenuSupplier#getDisplayItems(List)}, in the display item pool if one is set. All icons of a page are
+     * committed to the inventory at once. Refreshing single slots only rebuilds the icons of these slots.
+     *
+     * @param supplier     The supplier to read the elements from.
+     * @param action       The action that triggers the click handler.
+     * @param clickHandler The click handler for all elements. It receives the clicked element as target.
+     * @param <T>          The type of the list elements.
+     */
+    public <T> void setListSupplier(ListMenuSupplier<T> supplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        Map<Action<?>, ContextConsumer<TargetContext<T>>> map = new HashMap<>();
+        map.put(action, clickHandler);
+        setListSupplier(supplier, map);
+    }
+
+    /**
+     * Backs this list menu by a list supplier. The elements are read from the supplier with each render and
+     * {@link #invalidateListPage()}, and the icons of the visible page are built with
+     * {@link ListMenuSupplier#getDisplayItems(List)}, in the display item pool if one is set. All icons of a page are
+     * committed to the inventory at once. Refreshing single slots only rebuilds the icons of these slots.
+     *
+     * @param supplier      The supplier to read the elements from.
+     * @param clickHandlers The click handlers that are shared by all elements. They receive the clicked element as target.
+     * @param <T>           The type of the list elements.
+     */
+    public <T> void setListSupplier(ListMenuSupplier<T> supplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+        setListView(new SupplierView<>(supplier, clickHandlers));
+    }
+
+    /**
+     * Builds the icons for the given elements in the display item pool, split into batches of
+     * {@link #getDisplayItemBatchSize()} that run as separate fork join tasks.
+     */
+    private <T> CompletableFuture<List<ItemStack>> buildDisplayItems(List<T> elements, Function<List<T>, List<ItemStack>> builder) {
+        ForkJoinPool pool = displayItemPool;
+        if (pool == null || elements.isEmpty()) {
+            try {
+                return CompletableFuture.completedFuture(builder.apply(elements));
+            } catch (Throwable t) {
+                return CompletableFuture.failedFuture(t);
+            }
+        }
+        int batchSize = displayItemBatchSize <= 0 ? elements.size() : displayItemBatchSize;
+        return CompletableFuture.supplyAsync(() -> {
+            List<ForkJoinTask<List<ItemStack>>> tasks = new ArrayList<>();
+            for (int i = 0; i < elements.size(); i += batchSize) {
+                List<T> batch = elements.subList(i, Integer.min(i + batchSize, elements.size()));
+                tasks.add(pool.submit(() -> builder.apply(batch)));
+            }
+            List<ItemStack> items = new ArrayList<>(elements.size());
+            for (ForkJoinTask<List<ItemStack>> task : tasks) {
+                items.addAll(task.join());
+            }
+            return items;
+        }, pool);
+    }
+
+    private @Nullable List<ItemStack> joinDisplayItems(CompletableFuture<List<ItemStack>> future) {
+        try {
+            return future.join();
+        } catch (CancellationException e) {
+            return null;
+        } catch (CompletionException e) {
+            GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error occured while building icons of list menu " + getClass(), e.getCause());
+            return null;
+        }
+    }
+
+    private void setListView(@Nullable ListView<?> listView) {
+        if (this.listView != null) {
+            this.listView.close();
+        }
+        this.listView = listView;
+    }
+
+    /**
+     * Removes the data source or async supplier and displays the list entries again.
+     */
+    public void removeListDataSource() {
+        setListView(null);
+    }
+
+    /**
+     * Adds list entries for all elements of an observable collection and keeps them in sync with it. Each insertion,
+     * removal and update of the collection only refreshes the list slots of the visible page that display a changed
+     * or shifted element, so there is no need to refresh all list slots manually.
+     * Unbind the collection with {@link #unbindListEntries(ObservableCollection)} if the menu is discarded, otherwise the
+     * collection keeps a reference to this menu.
+     *
+     * @param collection   The collection to display.
+     * @param itemSupplier Creates the icon for an element.
+     * @param action       The action that triggers the click handler.
+     * @param clickHandler The click handler for all elements. It receives the clicked element as target.
+     * @param <T>          The type of the list elements.
+     */
+    public <T> void bindListEntries(ObservableCollection<T> collection, Function<T, ItemStack> itemSupplier, Action<? extends TargetContext<?>> action, ContextConsumer<TargetContext<T>> clickHandler) {
+        Map<Action<?>, ContextConsumer<TargetContext<T>>> map = new HashMap<>();
+        map.put(action, clickHandler);
+        bindListEntries(collection, itemSupplier, map);
+    }
+
+    /**
+     * Adds list entries for all elements of an observable collection and keeps them in sync with it. Each insertion,
+     * removal and update of the collection only refreshes the list slots of the visible page that display a changed
+     * or shifted element, so there is no need to refresh all list slots manually.
+     * Unbind the collection with {@link #unbindListEntries(ObservableCollection)} if the menu is discarded, otherwise the
+     * collection keeps a reference to this menu.
+     *
+     * @param collection    The collection to display.
+     * @param itemSupplier  Creates the icon for an element.
+     * @param clickHandlers The click handlers that are shared by all elements. They receive the clicked element as target.
+     * @param <T>           The type of the list elements.
+     */
+    public <T> void bindListEntries(ObservableCollection<T> collection, Function<T, ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<TargetContext<T>>> clickHandlers) {
+        unbindListEntries(collection);
+        Binding<T> binding = new Binding<>(collection, itemSupplier, clickHandlers);
+        bindings.add(binding);
+        binding.bind();
+    }
+
+    /**
+     * Stops syncing with the given collection and removes all list entries that were added for it.
+     *
+     * @param collection The collection that was bound with {@link #bindListEntries(ObservableCollection, Function, Map)}.
+     */
+    public void unbindListEntries(ObservableCollection<?> collection) {
+        bindings.removeIf(binding -> {
+            if (binding.collection != collection) {
+                return false;
+            }
+            binding.unbind();
+            return true;
+        });
+    }
+
+    /**
+     * Refreshes all list slots of the visible page that display one of the given list indices.
+     * Also re-applies presets if the max page changed, so that pagination icons stay correct.
+     *
+     * @param from            The first changed index, inclusive. Negative values are ignored.
+     * @param to              The last changed index, exclusive.
+     * @param previousMaxPage The max page before the change.
+     */
+    private void refreshListIndices(int from, int to, int previousMaxPage) {
+        if (viewer.isEmpty() || listView != null || from < 0) {
+            return;
+        }
+        if (getMaxPage() != previousMaxPage) {
+            try {
+                refreshDynamicItemSuppliers();
+            } catch (ItemPlaceException e) {
+                GUIHandler.getInstance().getExceptionHandler().accept(e);
+            }
+            int[] slots = Arrays.stream(getSlots()).filter(slot -> !isListSlot(slot)).toArray();
+            super.refresh(slots);
+        }
+        int pageStart = getCurrentPage() * listSlotCount;
+        int first = Integer.max(from, pageStart);
+        int last = Integer.min(to, pageStart + listSlotCount);
+        if (first >= last) {
+            return;
+        }
+        int[] slots = new int[last - first];
+        for (int i = first; i < last; i++) {
+            slots[i - first] = listSlots[i - pageStart];
+        }
+        super.refresh(slots);
+    }
+
     @Override
     public void setItem(int slot, Supplier<ItemStack> itemSupplier) {
         GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Don't use #setClickHandler or #setItem on ListMenus. Instead, append with #addListEntry");
@@ -114,6 +916,9 @@ public class ListMenu extends RectInventoryMenu {
 
     @Override
     public int getMaxPage() {
+        if (listView != null) {
+            return listView.getMaxPage(getCurrentPage(), listSlotCount);
+        }
         return (int) Math.floor((double) listElements.size() / listSlotCount);
     }
 
@@ -130,6 +935,20 @@ public class ListMenu extends RectInventoryMenu {
         return element;
     }
 
+    /**
+     * Adds an entry to the list inventory that displays the given target object. The target is used by list sorts,
+     * filters and the list search.
+     *
+     * @param target        the object that the entry displays.
+     * @param buttonBuilder a button to insert.
+     * @return the reference to the stored object Pair. Can be used to remove list elements
+     */
+    public <T> ListElement addListEntry(T target, Button buttonBuilder) {
+        ListElement element = new ListElement(buttonBuilder.getStackSupplier(), buttonBuilder.getClickHandler(), target);
+        listElements.add(element);
+        return element;
+    }
+
     public <T> List<ListElement> addListEntries(Collection<T> elements, Function<T, ItemStack> itemSupplier, Action<?> action, ContextConsumer<TargetContext<T>> clickHandler) {
         Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> map = new HashMap<>();
         map.put(action, clickHandler);
@@ -140,7 +959,7 @@ public class ListMenu extends RectInventoryMenu {
     public <T> List<ListElement> addListEntries(Collection<T> elements, Function<T, ItemStack> itemSupplier, Map<Action<?>, ContextConsumer<? extends TargetContext<?>>> clickHandler) {
         List<ListElement> ret = new ArrayList<>();
         for (T element : elements) {
-            ListElement e = new ListElement(() -> itemSupplier.apply(element), clickHandler);
+            ListElement e = new ListElement(() -> itemSupplier.apply(element), clickHandler, element);
             this.listElements.add(e);
             ret.add(e);
         }
@@ -148,10 +967,10 @@ public class ListMenu extends RectInventoryMenu {
     }
 
     /**
-     * Removes the last element from the list
+     * Removes the last added element from the list
      */
     public void popListEntry() {
-        listElements.remove(listElements.get(listElements.size() - 1));
+        listElements.removeLast();
     }
 
     /**
@@ -164,9 +983,98 @@ public class ListMenu extends RectInventoryMenu {
     }
 
     /**
-     * Clears all list entries
+     * Clears all list entries and unbinds all observable collections
      */
     public void clearListEntries() {
+        bindings.forEach(Binding::unbind);
+        bindings.clear();
         listElements.clear();
     }
+
+    /**
+     * Indexes a list entry again after its target changed in a way that affects a sort, filter or the search key.
+     *
+     * @param entry The entry to update.
+     */
+    public void updateListEntry(ListElement entry) {
+        listElements.update(entry);
+    }
+
+    /**
+     * Registers a sort order for the targets of all list entries. The sort order is kept up to date with each added entry,
+     * so that switching to it with {@link #setListSort(String)} does not sort the entries again.
+     * Entries without target or with a target of another type are sorted to the end.
+     *
+     * @param name       The name of the sort order.
+     * @param type       The type of the targets to sort.
+     * @param comparator The comparator of the sort order.
+     * @param <T>        The type of the targets to sort.
+     */
+    public <T> void addListSort(String name, Class<T> type, Comparator<T> comparator) {
+        Comparator<T> nullsLast = Comparator.nullsLast(comparator);
+        listElements.addSort(name, (a, b) -> nullsLast.compare(target(a, type), target(b, type)));
+    }
+
+    /**
+     * @param name The name of the sort order to display the list entries in or null to display them in insertion order.
+     *             Call {@link #refresh(int...)} with {@link #getListSlots()} afterwards to update open menus.
+     */
+    public void setListSort(@Nullable String name) {
+        listElements.setSort(name);
+    }
+
+    /**
+     * Registers a filter for the targets of all list entries. The filter is only tested once for each added entry.
+     * Entries without target or with a target of another type never pass the filter.
+     *
+     * @param name   The name of the filter.
+     * @param type   The type of the targets to filter.
+     * @param filter The predicate that a target has to pass to be displayed while the filter is active.
+     * @param <T>    The type of the targets to filter.
+     */
+    public <T> void addListFilter(String name, Class<T> type, Predicate<T> filter) {
+        listElements.addFilter(name, element -> {
+            T target = target(element, type);
+            return target != null && filter.test(target);
+        });
+    }
+
+    /**
+     * @param names The names of all filters that a list entry has to pass to be displayed.
+     *              Call {@link #refresh(int...)} with {@link #getListSlots()} afterwards to update open menus.
+     */
+    public void setListFilters(String... names) {
+        listElements.setFilters(names);
+    }
+
+    /**
+     * Sets the text that list entries can be found by with {@link #searchList(String)}.
+     * Entries without target or with a target of another type cannot be found.
+     *
+     * @param type      The type of the targets to search.
+     * @param searchKey The function that returns the search text of a target.
+     * @param <T>       The type of the targets to search.
+     */
+    public <T> void setListSearchKey(Class<T> type, Function<T, String> searchKey) {
+        listElements.setSearchKey(element -> {
+            T target = target(element, type);
+            return target == null ? null : searchKey.apply(target);
+        });
+    }
+
+    /**
+     * Only displays the list entries whose search key contains the given query, ignoring case. The search only checks
+     * entries that share the rarest character pair with the query, so it can be called on each input of an anvil menu.
+     *
+     * @param query The text to search for or null to display all list entries.
+     *              Call {@link #refresh(int...)} with {@link #getListSlots()} afterwards to update open menus.
+     */
+    public void searchList(@Nullable String query) {
+        listElements.search(query);
+    }
+
+    @Nullable
+    private static <T> T target(ListElement element, Class<T> type) {
+        return type.isInstance(element.target) ? type.cast(element.target) : null;
+    }
 }
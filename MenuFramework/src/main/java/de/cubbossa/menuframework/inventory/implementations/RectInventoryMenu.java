@@ -3,7 +3,6 @@ package de.cubbossa.menuframework.inventory.implementations;
 import com.google.common.collect.Lists;
 import de.cubbossa.menuframework.GUIHandler;
 import de.cubbossa.menuframework.inventory.TopInventoryMenu;
-import de.cubbossa.menuframework.util.ChatUtils;
 import lombok.Getter;
 import lombok.Setter;
 import net.kyori.adventure.text.ComponentLike;
@@ -81,8 +80,8 @@ public class RectInventoryMenu extends TopInventoryMenu {
     @Override
     public Inventory createInventory(Player player, int page) {
         return type == InventoryType.CHEST ?
-                Bukkit.createInventory(null, slotsPerPage, ChatUtils.toLegacy(getTitle(page))) :
-                Bukkit.createInventory(null, type, ChatUtils.toLegacy(getTitle(page)));
+                Bukkit.createInventory(null, slotsPerPage, getLegacyTitle(page)) :
+                Bukkit.createInventory(null, type, getLegacyTitle(page));
     }
 
     @Override
@@ -7,7 +7,7 @@ import de.cubbossa.menuframework.inventory.Button;
 import de.cubbossa.menuframework.inventory.context.ContextConsumer;
 import de.cubbossa.menuframework.inventory.context.TargetContext;
 import de.cubbossa.menuframework.inventory.exception.MenuHandlerException;
-import de.cubbossa.menuframework.util.ChatUtils;
+import de.cubbossa.menuframework.nms.NmsAdapter;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import net.kyori.adventure.text.ComponentLike;
@@ -18,8 +18,11 @@ import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.*;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class VillagerMenu extends InventoryMenu {
@@ -36,51 +39,143 @@ public class VillagerMenu extends InventoryMenu {
 
     @Getter
     private @Nullable Merchant merchant;
-    private final Stack<TradeButton> offers;
+    // the offers in trade order and the offer of each recipe
+    private final List<TradeButton> offers;
+    private final Map<MerchantRecipe, TradeButton> offersByRecipe;
+    // whether offers were added or removed since the recipes of the merchant were set
+    private boolean recipesChanged = true;
+    private boolean offerUpdateScheduled = false;
 
     public VillagerMenu(ComponentLike title) {
         super(InventoryType.MERCHANT, title, new int[]{0, 1, 2});
-        this.offers = new Stack<>();
+        this.offers = new ArrayList<>();
+        this.offersByRecipe = new IdentityHashMap<>();
     }
 
     public @Nullable TradeButton getMerchantOffer(MerchantRecipe recipe) {
-        return offers.stream().filter(tradeButton -> tradeButton.recipe.equals(recipe)).findFirst().orElse(null);
+        return offersByRecipe.get(recipe);
+    }
+
+    public @Nullable TradeButton getMerchantOffer(int index) {
+        return index < 0 || index >= offers.size() ? null : offers.get(index);
+    }
+
+    public int getMerchantOfferCount() {
+        return offers.size();
     }
 
     public void insertMerchantOffer(int slot, MerchantRecipe recipe, Button clickHandler) throws IndexOutOfBoundsException {
-        offers.set(slot, new TradeButton(recipe, clickHandler.getClickHandler()));
+        setOffer(slot, new TradeButton(recipe, clickHandler.getClickHandler()));
     }
 
     public TradeButton addMerchantOffer(MerchantRecipe recipe, Button clickHandler) {
         TradeButton button = new TradeButton(recipe, clickHandler.getClickHandler());
-        offers.push(button);
+        offers.add(button);
+        offersByRecipe.put(recipe, button);
+        recipesChanged = true;
+        scheduleOfferUpdate();
         return button;
     }
 
     public void removeMerchantOffer(TradeButton tradeButton) {
-        offers.remove(tradeButton);
+        if (offers.remove(tradeButton)) {
+            offersByRecipe.remove(tradeButton.getRecipe());
+            recipesChanged = true;
+            scheduleOfferUpdate();
+        }
     }
 
     public int getIndex(TradeButton button) {
         return offers.indexOf(button);
     }
 
+    /**
+     * Replaces the recipe of one offer, e.g. to change its stock or price, and keeps its click handlers.
+     * Open viewers see the change without the window being reopened. All updates of one tick are sent together.
+     * Without an NMS adapter for the server version, viewers see the change the next time they open the menu.
+     *
+     * @param index  The index of the offer.
+     * @param recipe The new recipe.
+     * @throws IndexOutOfBoundsException if there is no offer with the given index.
+     */
+    public void updateMerchantOffer(int index, MerchantRecipe recipe) throws IndexOutOfBoundsException {
+        setOffer(index, new TradeButton(recipe, offers.get(index).getClickHandler()));
+    }
+
+    private void setOffer(int index, TradeButton button) {
+        TradeButton previous = offers.set(index, button);
+        offersByRecipe.remove(previous.getRecipe());
+        offersByRecipe.put(button.getRecipe(), button);
+        if (merchant != null && !recipesChanged) {
+            merchant.setRecipe(index, button.getRecipe());
+        }
+        scheduleOfferUpdate();
+    }
+
+    private void scheduleOfferUpdate() {
+        if (offerUpdateScheduled || merchant == null || viewer.isEmpty()) {
+            return;
+        }
+        offerUpdateScheduled = true;
+        Bukkit.getScheduler().runTask(GUIHandler.getInstance().getPlugin(), () -> {
+            offerUpdateScheduled = false;
+            if (merchant == null) {
+                return;
+            }
+            updateRecipes();
+            NmsAdapter nmsAdapter = GUIHandler.getInstance().getNmsAdapter();
+            if (nmsAdapter == null) {
+                return;
+            }
+            for (UUID uuid : viewer.keySet()) {
+                Player player = Bukkit.getPlayer(uuid);
+                if (player != null) {
+                    nmsAdapter.updateMerchantOffers(player);
+                }
+            }
+        });
+    }
+
+    private void updateRecipes() {
+        if (merchant != null && recipesChanged) {
+            merchant.setRecipes(offers.stream().map(TradeButton::getRecipe).collect(Collectors.toList()));
+            recipesChanged = false;
+        }
+    }
+
     @Override
     public Inventory createInventory(Player player, int page) {
-        merchant = Bukkit.createMerchant(ChatUtils.toLegacy(getTitle()));
-        merchant.setRecipes(offers.stream().map(TradeButton::getRecipe).collect(Collectors.toList()));
+        if (merchant == null) {
+            merchant = Bukkit.createMerchant(getLegacyTitle(page));
+        }
+        updateRecipes();
 
+        // merchant inventories only exist while they are open, so the first viewer opens it here
         InventoryView view = player.openMerchant(merchant, true);
-        return view == null ? null : view.getInventory(0);
+        return view == null ? null : view.getTopInventory();
     }
 
     @Override
     protected void openInventory(Player player, Inventory inventory) {
-        if (merchant != null) {
-            this.inventory = player.openMerchant(merchant, true).getTopInventory();
+        if (merchant == null || isThisInventory(player.getOpenInventory().getTopInventory(), player)) {
+            return;
+        }
+        updateRecipes();
+        // every open creates a new merchant inventory for the player
+        InventoryView view = player.openMerchant(merchant, true);
+        if (view != null) {
+            this.inventory = view.getTopInventory();
         }
     }
 
+    /**
+     * Each viewer has an own merchant inventory, so inventories are matched by the merchant they belong to.
+     */
+    @Override
+    public boolean isThisInventory(Inventory inventory, Player player) {
+        return merchant != null && inventory instanceof MerchantInventory && ((MerchantInventory) inventory).getMerchant() == merchant;
+    }
+
     @Override
     public <C extends TargetContext<?>> boolean handleInteract(Action<C> action, C context) {
 
@@ -89,8 +184,12 @@ public class VillagerMenu extends InventoryMenu {
             a = ATTEMPT_BUY;
         }
         if (a != null) {
-            int selected = ((MerchantInventory) inventory).getSelectedRecipeIndex();
-            TradeButton btn = offers.get(selected);
+            Inventory open = context.getPlayer().getOpenInventory().getTopInventory();
+            if (!isThisInventory(open, context.getPlayer())) {
+                return context.isCancelled();
+            }
+            int selected = ((MerchantInventory) open).getSelectedRecipeIndex();
+            TradeButton btn = getMerchantOffer(selected);
 
             if (btn == null) {
                 return context.isCancelled();
@@ -73,5 +73,6 @@ public class HotbarListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         InvMenuHandler.getInstance().closeAllBottomMenus(player);
+        InvMenuHandler.getInstance().clearTopMenuNavigation(player);
     }
 }
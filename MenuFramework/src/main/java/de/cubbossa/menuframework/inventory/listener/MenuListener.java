@@ -1,6 +1,7 @@
 package de.cubbossa.menuframework.inventory.listener;
 
 import de.cubbossa.menuframework.inventory.Menu;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 
 public interface MenuListener extends Listener {
@@ -8,4 +9,22 @@ public interface MenuListener extends Listener {
 	void register(Menu menu);
 
 	void unregister(Menu menu);
+
+	/**
+	 * Called each time a player opens a menu, after the menu was registered for its first viewer.
+	 *
+	 * @param menu   The opened menu.
+	 * @param player The player that opened the menu.
+	 */
+	default void registerViewer(Menu menu, Player player) {
+	}
+
+	/**
+	 * Called each time a player closes a menu, before the menu is unregistered after its last viewer.
+	 *
+	 * @param menu   The closed menu.
+	 * @param player The player that closed the menu.
+	 */
+	default void unregisterViewer(Menu menu, Player player) {
+	}
 }
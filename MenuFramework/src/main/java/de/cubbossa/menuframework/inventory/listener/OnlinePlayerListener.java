@@ -0,0 +1,36 @@
+package de.cubbossa.menuframework.inventory.listener;
+
+import de.cubbossa.menuframework.GUIHandler;
+import de.cubbossa.menuframework.util.ObservableCollection;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Keeps an observable collection of all online players, so that list menus can be bound to it.
+ */
+public class OnlinePlayerListener implements Listener {
+
+    @Getter
+    private final ObservableCollection<Player> onlinePlayers;
+
+    public OnlinePlayerListener() {
+        this.onlinePlayers = new ObservableCollection<>(Bukkit.getOnlinePlayers());
+        Bukkit.getPluginManager().registerEvents(this, GUIHandler.getInstance().getPlugin());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        onlinePlayers.add(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        onlinePlayers.remove(event.getPlayer());
+    }
+}
@@ -0,0 +1,107 @@
+package de.cubbossa.menuframework.nms;
+
+import de.cubbossa.menuframework.GUIHandler;
+import org.bukkit.Bukkit;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.UUID;
+
+/**
+ * Access to server internals for one server version. Each supported version provides its own compiled adapter
+ * module that registers its implementation as service, e.g. MenuFramework-NMS-v1_18_R2.
+ * The adapter is optional. Without an adapter for the running version, inventory titles are updated by reflection
+ * and features that need server internals fall back to the Bukkit API or are not available.
+ */
+public interface NmsAdapter {
+
+    /**
+     * @return The craftbukkit package version this adapter is compiled against, e.g. "v1_18_R2".
+     */
+    String getVersion();
+
+    /**
+     * Changes the title of the currently open inventory of a player by reopening the window with the same container.
+     * Inventories that cannot be reopened, like the player inventory, are ignored.
+     *
+     * @param player The player to update the inventory for.
+     * @param title  The new title as legacy text.
+     */
+    void updateInventoryTitle(Player player, String title);
+
+    /**
+     * Opens a chest window on the client of a player without creating a server side inventory or container.
+     * The server keeps the currently open container, e.g. the player inventory.
+     *
+     * @param player The player to open the window for.
+     * @param rows   The amount of rows of the chest window, from 1 to 6.
+     * @param title  The title of the window as legacy text.
+     * @return The container id of the opened window.
+     */
+    int openClientWindow(Player player, int rows, String title);
+
+    /**
+     * Resends the trade list of the currently open merchant window of a player, so that changed recipes are displayed
+     * without reopening the window. Does nothing if the player has no merchant window open.
+     *
+     * @param player The player to update the trade list for.
+     */
+    void updateMerchantOffers(Player player);
+
+    /**
+     * Shows a boss bar on the client of a player without creating a server side boss bar.
+     *
+     * @param player   The player to show the boss bar to.
+     * @param uuid     The id of the boss bar on the client, it is used to update or remove the boss bar.
+     * @param title    The title as legacy text.
+     * @param progress The progress from 0 to 1.
+     * @param color    The color of the boss bar.
+     * @param style    The style of the boss bar.
+     */
+    void sendBossBarAdd(Player player, UUID uuid, String title, float progress, BarColor color, BarStyle style);
+
+    /**
+     * Removes a boss bar that was shown with {@link #sendBossBarAdd(Player, UUID, String, float, BarColor, BarStyle)}.
+     */
+    void sendBossBarRemove(Player player, UUID uuid);
+
+    void sendBossBarTitle(Player player, UUID uuid, String title);
+
+    void sendBossBarProgress(Player player, UUID uuid, float progress);
+
+    void sendBossBarStyle(Player player, UUID uuid, BarColor color, BarStyle style);
+
+    /**
+     * @return The craftbukkit package version of the running server, e.g. "v1_18_R2".
+     */
+    static String getServerVersion() {
+        String name = Bukkit.getServer().getClass().getPackage().getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Finds the adapter for the running server version among all registered adapters.
+     *
+     * @param classLoader The class loader to load the adapter services with.
+     * @return The adapter for the running server version or null if no adapter supports the running server version.
+     */
+    static @Nullable NmsAdapter load(ClassLoader classLoader) {
+        String version = getServerVersion();
+        List<String> supported = new ArrayList<>();
+        for (NmsAdapter adapter : ServiceLoader.load(NmsAdapter.class, classLoader)) {
+            if (adapter.getVersion().equals(version)) {
+                return adapter;
+            }
+            supported.add(adapter.getVersion());
+        }
+        GUIHandler.getInstance().getLogger().warning("No MenuFramework NMS adapter found for server version " + version
+                + ". Supported versions: " + supported + ". Falling back to reflection, include the MenuFramework-NMS module"
+                + " of your server version to use all features.");
+        return null;
+    }
+}
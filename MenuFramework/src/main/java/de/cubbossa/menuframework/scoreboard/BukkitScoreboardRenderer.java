@@ -0,0 +1,78 @@
+package de.cubbossa.menuframework.scoreboard;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+/**
+ * Renders each sidebar with its own Bukkit scoreboard, objective and one team per line.
+ */
+public class BukkitScoreboardRenderer implements ScoreboardRenderer {
+
+    @Override
+    public ScoreboardView createView(Player player, String identifier, String title, int lines) {
+        return new BukkitView(player, identifier, title, lines);
+    }
+
+    private static class BukkitView implements ScoreboardView {
+        private final Player player;
+        private final String identifier;
+        private final int lines;
+        private final Objective objective;
+        private final Team[] teams;
+
+        private BukkitView(Player player, String identifier, String title, int lines) {
+            this.player = player;
+            this.identifier = identifier;
+            this.lines = lines;
+            this.teams = new Team[lines];
+
+            Scoreboard scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
+            this.objective = scoreboard.registerNewObjective("GUI Framework", identifier, title);
+            this.objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+            for (int i = 0; i < lines; i++) {
+                objective.getScore(ScoreboardRenderer.getLineEntry(lines - i)).setScore(lines - i);
+            }
+        }
+
+        @Override
+        public void show() {
+            player.setScoreboard(objective.getScoreboard());
+        }
+
+        @Override
+        public void hide() {
+            if (isActive()) {
+                objective.getScoreboard().clearSlot(DisplaySlot.SIDEBAR);
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            return objective.getScoreboard() != null;
+        }
+
+        @Override
+        public void setTitle(String title) {
+            objective.setDisplayName(title);
+        }
+
+        @Override
+        public void setLine(int index, String text) {
+            Team team = teams[index];
+            if (team == null) {
+                Scoreboard scoreboard = objective.getScoreboard();
+                team = scoreboard.getTeam(identifier + index);
+                if (team == null) {
+                    team = scoreboard.registerNewTeam(identifier + index);
+                }
+                team.addEntry(ScoreboardRenderer.getLineEntry(lines - index));
+                teams[index] = team;
+            }
+            team.setPrefix(text);
+        }
+    }
+}
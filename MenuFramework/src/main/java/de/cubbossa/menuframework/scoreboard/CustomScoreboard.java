@@ -1,24 +1,27 @@
 package de.cubbossa.menuframework.scoreboard;
 
 import com.google.common.collect.Lists;
+import de.cubbossa.menuframework.GUIHandler;
 import de.cubbossa.menuframework.chat.ChatMenu;
 import de.cubbossa.menuframework.util.Animation;
 import de.cubbossa.menuframework.util.ChatUtils;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentLike;
 import net.kyori.adventure.text.format.TextColor;
-import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
-import org.bukkit.scoreboard.DisplaySlot;
-import org.bukkit.scoreboard.Objective;
-import org.bukkit.scoreboard.Scoreboard;
-import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 
 public class CustomScoreboard {
 
@@ -26,6 +29,11 @@ public class CustomScoreboard {
     public static class Entry {
         private final String key;
         private final Supplier<ComponentLike> componentSupplier;
+        private final Function<Player, ComponentLike> playerComponentSupplier;
+
+        public Entry(String key, Supplier<ComponentLike> componentSupplier) {
+            this(key, componentSupplier, null);
+        }
 
         public String key() {
             return key;
@@ -34,6 +42,139 @@ public class CustomScoreboard {
         public Supplier<ComponentLike> componentSupplier() {
             return componentSupplier;
         }
+
+        public Function<Player, ComponentLike> playerComponentSupplier() {
+            return playerComponentSupplier;
+        }
+
+        /**
+         * @return true if the line is evaluated for each viewer, false if it is evaluated once for all viewers.
+         */
+        public boolean isPersonal() {
+            return playerComponentSupplier != null;
+        }
+    }
+
+    /**
+     * A line of a viewer that is evaluated by the async executor.
+     */
+    private static class LineRequest {
+        private final ViewerBoard board;
+        private final int index;
+        private final Entry entry;
+        private final long generation;
+        private String text = null;
+
+        private LineRequest(ViewerBoard board, int index, Entry entry, long generation) {
+            this.board = board;
+            this.index = index;
+            this.entry = entry;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Evaluates the lines for all viewers of one update. Global lines are evaluated once per cycle and personal lines
+     * once per viewer, while equal components share one serialized legacy text.
+     * If an async executor is set, all requested lines are evaluated together in the executor once the cycle is flushed.
+     */
+    private class RenderCycle {
+        private final String[] globalTexts = new String[lines];
+        private final Map<Component, String> legacyTexts = new HashMap<>();
+        private final List<LineRequest> requests = new ArrayList<>();
+
+        private void request(ViewerBoard board, int index) {
+            Entry entry = entries.get(index);
+            if (asyncExecutor == null) {
+                String text = render(index, entry, board.player);
+                if (text != null) {
+                    board.setLine(index, text);
+                }
+                return;
+            }
+            // the entry is captured on the main thread, so that the whole cycle is evaluated against the same lines.
+            requests.add(new LineRequest(board, index, entry, ++board.generations[index]));
+        }
+
+        private void flush() {
+            Executor executor = asyncExecutor;
+            if (executor == null || requests.isEmpty()) {
+                return;
+            }
+            List<LineRequest> batch = new ArrayList<>(requests);
+            requests.clear();
+            try {
+                executor.execute(() -> {
+                    for (LineRequest request : batch) {
+                        try {
+                            request.text = render(request.index, request.entry, request.board.player);
+                        } catch (Throwable t) {
+                            GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Error occured while evaluating line " + request.index + " of scoreboard " + identifier, t);
+                        }
+                    }
+                    completedRequests.addAll(batch);
+                    if (applyScheduled.compareAndSet(false, true)) {
+                        GUIHandler.getInstance().callSynchronized(CustomScoreboard.this::applyCompletedRequests);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                GUIHandler.getInstance().getLogger().log(Level.SEVERE, "Could not evaluate lines of scoreboard " + identifier, e);
+            }
+        }
+
+        private @Nullable String render(int index, @Nullable Entry entry, Player player) {
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isPersonal()) {
+                return toLegacy(entry.playerComponentSupplier().apply(player));
+            }
+            if (globalTexts[index] == null && entry.componentSupplier() != null) {
+                globalTexts[index] = toLegacy(entry.componentSupplier().get());
+            }
+            return globalTexts[index];
+        }
+
+        private @Nullable String toLegacy(@Nullable ComponentLike componentLike) {
+            return componentLike == null ? null : legacyTexts.computeIfAbsent(componentLike.asComponent(), ChatUtils::toLegacy);
+        }
+    }
+
+    /**
+     * The sidebar of one viewer and the last legacy text that was sent for each line.
+     */
+    private static class ViewerBoard {
+        private final Player player;
+        private final ScoreboardView view;
+        private final String[] texts;
+        // spreads the refreshes of the viewers across the refresh interval of each line.
+        private final int phase;
+        // the board is covered by another scoreboard of the stack and keeps its state until it is restored.
+        private boolean covered = false;
+        // one bit for each line that changed while the board was covered.
+        private int staleLines = 0;
+        // the latest requested async evaluation of each line, older results are dropped.
+        private final long[] generations;
+
+        private ViewerBoard(Player player, ScoreboardView view, int lines, int phase) {
+            this.player = player;
+            this.view = view;
+            this.texts = new String[lines];
+            this.phase = phase;
+            this.generations = new long[lines];
+        }
+
+        private boolean isRegistered() {
+            return view.isActive();
+        }
+
+        private void setLine(int index, String text) {
+            if (text.equals(texts[index])) {
+                return;
+            }
+            view.setLine(index, text);
+            texts[index] = text;
+        }
     }
 
     @Getter
@@ -42,9 +183,32 @@ public class CustomScoreboard {
     private ComponentLike title;
     private final int lines;
 
-    private final Map<Player, Objective> scoreboards;
+    private final Map<Player, ViewerBoard> scoreboards;
     private final Map<Integer, Entry> entries;
     private final Map<Integer, Collection<Animation>> animations;
+    private final Map<String, Set<Integer>> keyLines;
+    private final int[] refreshIntervals;
+    // global lines with refresh interval are evaluated once per interval and handed to all viewers that are due.
+    private final String[] scheduledTexts;
+    private final long[] scheduledTicks;
+    private final Queue<LineRequest> completedRequests;
+    private final AtomicBoolean applyScheduled;
+
+    /**
+     * If set, all lines are evaluated in this executor instead of the main thread. The results of one update are
+     * applied together in one main thread task, results of lines that were requested again in the meantime are
+     * dropped. Suppliers must therefore be thread safe if an executor is set.
+     */
+    @Getter
+    @Setter
+    private @Nullable Executor asyncExecutor = null;
+    /**
+     * The renderer for the sidebars of this scoreboard, or null to use {@link CustomScoreboardHandler#getDefaultRenderer()}.
+     * Changes only apply to sidebars that are shown afterwards.
+     */
+    @Getter
+    @Setter
+    private @Nullable ScoreboardRenderer renderer = null;
 
     /**
      * @param identifier a unique identifier for this scoreboard
@@ -59,6 +223,12 @@ public class CustomScoreboard {
         this.scoreboards = new HashMap<>();
         this.entries = new TreeMap<>();
         this.animations = new TreeMap<>();
+        this.keyLines = new HashMap<>();
+        this.refreshIntervals = new int[this.lines];
+        this.scheduledTexts = new String[this.lines];
+        this.scheduledTicks = new long[this.lines];
+        this.completedRequests = new ConcurrentLinkedQueue<>();
+        this.applyScheduled = new AtomicBoolean(false);
     }
 
     /**
@@ -68,50 +238,84 @@ public class CustomScoreboard {
      * @param player the player to show this scoreboard to
      */
     public void show(Player player) {
-        Scoreboard scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
-        Objective obj = scoreboard.registerNewObjective("GUI Framework", identifier, ChatUtils.toLegacy(title));
-        scoreboards.put(player, obj);
+        RenderCycle cycle = new RenderCycle();
+        show(player, cycle);
+        cycle.flush();
+    }
 
-        obj.setDisplaySlot(DisplaySlot.SIDEBAR);
+    private void show(Player player, RenderCycle cycle) {
+        ScoreboardRenderer renderer = this.renderer != null ? this.renderer : CustomScoreboardHandler.getInstance().getDefaultRenderer();
+        ViewerBoard previous = scoreboards.get(player);
+        if (previous != null) {
+            previous.view.hide();
+        }
+        ViewerBoard board = new ViewerBoard(player, renderer.createView(player, identifier, ChatUtils.toLegacy(title), lines), lines,
+                CustomScoreboardHandler.getInstance().getRefreshPhase(player));
+        scoreboards.put(player, board);
 
         // Static lines
         for (int i = 0; i < lines; i++) {
-            int line = lines - i;
-            String lineHex = Integer.toHexString(line);
-            String scoreString = "§" + lineHex + ChatColor.WHITE;
-            ComponentLike entry = entries.get(i).componentSupplier().get();
-
-            obj.getScore(scoreString).setScore(line);
-
-            if (entry == null) {
-                continue;
-            }
-            Team team = scoreboard.getTeam(identifier + i);
-            if (team == null) {
-                team = scoreboard.registerNewTeam(identifier + i);
-            }
-            team.addEntry(scoreString);
-            team.setPrefix(ChatUtils.toLegacy(entry));
+            updateLine(board, i, cycle);
         }
 
         // Run once to set all values
-        player.setScoreboard(scoreboard);
+        board.view.show();
         CustomScoreboardHandler.getInstance().registerScoreboard(player, this);
     }
 
+    /**
+     * Called if another scoreboard is shown on top of this scoreboard. The sidebar of the player is kept, but line
+     * updates are postponed until the sidebar is restored.
+     *
+     * @param player the player that sees another scoreboard now
+     */
+    void cover(Player player) {
+        ViewerBoard board = scoreboards.get(player);
+        if (board != null) {
+            board.covered = true;
+        }
+    }
+
+    /**
+     * Displays the kept sidebar again after the scoreboard on top of it was removed. Only lines that changed while the
+     * sidebar was covered are updated. If the sidebar cannot be restored, it is rebuilt.
+     *
+     * @param player the player to restore the sidebar for
+     */
+    void restore(Player player) {
+        ViewerBoard board = scoreboards.get(player);
+        if (board == null || !board.isRegistered()) {
+            show(player);
+            return;
+        }
+        board.covered = false;
+        RenderCycle cycle = new RenderCycle();
+        for (int i = 0; i < lines; i++) {
+            if ((board.staleLines & 1 << i) != 0) {
+                updateLine(board, i, cycle);
+            }
+        }
+        cycle.flush();
+        board.staleLines = 0;
+        board.view.show();
+    }
+
     /**
      * Makes this scoreboard visible for multiple players
      *
      * @param players the players to show the scoreboard to
      */
     public void show(Collection<Player> players) {
+        RenderCycle cycle = new RenderCycle();
         for (Player player : players) {
-            show(player);
+            show(player, cycle);
         }
+        cycle.flush();
     }
 
     /**
      * @return all players that are supposed to see this scoreboard at the moment. Other plugins can override the current scoreboard but the player still counts as viewing this scoreboard.
+     * Players that see another scoreboard on top of this scoreboard also still count as viewers.
      */
     public Collection<Player> getViewers() {
         return scoreboards.keySet();
@@ -123,38 +327,50 @@ public class CustomScoreboard {
      * @param player the player to update this scoreboard for
      */
     public void update(Player player) {
-        Objective obj = scoreboards.get(player);
-        if (obj == null || obj.getScoreboard() == null) {
-            return;
-        }
-        for (int i = 0; i < lines; i++) {
-            updateLine(obj, i);
-        }
+        RenderCycle cycle = new RenderCycle();
+        update(player, cycle);
+        cycle.flush();
     }
 
     /**
-     * Updates all dynamic lines of this scoreboard for the given players
+     * Updates all dynamic lines of this scoreboard for the given players. Global lines are only evaluated once for all
+     * players.
      *
      * @param players the players to update this scoreboard for
      */
     public void update(Collection<Player> players) {
+        RenderCycle cycle = new RenderCycle();
         for (Player player : players) {
-            update(player);
+            update(player, cycle);
+        }
+        cycle.flush();
+    }
+
+    private void update(Player player, RenderCycle cycle) {
+        ViewerBoard board = scoreboards.get(player);
+        if (board == null || !board.isRegistered()) {
+            return;
+        }
+        for (int i = 0; i < lines; i++) {
+            updateLine(board, i, cycle);
         }
     }
 
     /**
-     * Updates a certain dynamic line of this scoreboard for a given player
+     * Updates a certain dynamic line of this scoreboard for a given player. No packets are sent if the line text did
+     * not change since the last update.
      *
      * @param player the player to update this scoreboard for
      * @param index  the line index
      */
     public void updateLine(Player player, int index) {
-        Objective objective = scoreboards.get(player);
-        if (objective == null) {
+        ViewerBoard board = scoreboards.get(player);
+        if (board == null) {
             return;
         }
-        updateLine(objective, index);
+        RenderCycle cycle = new RenderCycle();
+        updateLine(board, index, cycle);
+        cycle.flush();
     }
 
     /**
@@ -164,29 +380,193 @@ public class CustomScoreboard {
      * @param index   the line index
      */
     public void updateLine(Collection<Player> players, int index) {
+        RenderCycle cycle = new RenderCycle();
         for (Player player : players) {
-            updateLine(player, index);
+            ViewerBoard board = scoreboards.get(player);
+            if (board != null) {
+                updateLine(board, index, cycle);
+            }
         }
+        cycle.flush();
     }
 
-    private void updateLine(Objective objective, int index) {
-        if (objective.getScoreboard() == null) {
+    private void updateLine(ViewerBoard board, int index, RenderCycle cycle) {
+        if (!board.isRegistered()) {
             return;
         }
-        int line = lines - index;
-        String lineHex = Integer.toHexString(line);
-        Entry entry = entries.get(index);
-        if (entry.componentSupplier() == null) {
+        if (board.covered) {
+            // evaluate the line once the board is restored.
+            board.staleLines |= 1 << index;
             return;
         }
-        Team team = objective.getScoreboard().getTeam(entry.key());
-        if (team == null) {
-            team = objective.getScoreboard().registerNewTeam(entry.key());
+        cycle.request(board, index);
+    }
+
+    private void applyCompletedRequests() {
+        applyScheduled.set(false);
+        LineRequest request;
+        while ((request = completedRequests.poll()) != null) {
+            ViewerBoard board = request.board;
+            // a newer evaluation of this line was requested or the board was replaced in the meantime
+            if (request.text == null || request.generation != board.generations[request.index] || scoreboards.get(board.player) != board) {
+                continue;
+            }
+            if (!board.isRegistered()) {
+                continue;
+            }
+            if (board.covered) {
+                board.staleLines |= 1 << request.index;
+                continue;
+            }
+            board.setLine(request.index, request.text);
+        }
+    }
+
+
+    /**
+     * Registers a dynamic entry that depends on the given keys. Once a key changes, call {@link #invalidate(String)} or
+     * {@link #invalidate(String, Player)} to only update the lines that depend on it.
+     *
+     * @param line  the line to place the entry on
+     * @param entry the supplier that will be called once the line is updated
+     * @param keys  the keys that the line depends on
+     */
+    public void setLine(int line, Supplier<ComponentLike> entry, String... keys) {
+        setLine(line, entry);
+        setLineKeys(line, keys);
+    }
+
+    /**
+     * Registers a personal line that depends on the given keys. Once a key changes, call {@link #invalidate(String)} or
+     * {@link #invalidate(String, Player)} to only update the lines that depend on it.
+     *
+     * @param line  the line to place the entry on
+     * @param entry the function that will be called for each viewer once the line is updated
+     * @param keys  the keys that the line depends on
+     */
+    public void setPlayerLine(int line, Function<Player, ComponentLike> entry, String... keys) {
+        setPlayerLine(line, entry);
+        setLineKeys(line, keys);
+    }
+
+    /**
+     * Sets the keys that a line depends on and replaces all keys that were set before.
+     *
+     * @param line the line to bind the keys to
+     * @param keys the keys that the line depends on
+     */
+    public void setLineKeys(int line, String... keys) {
+        keyLines.values().forEach(lines -> lines.remove(line));
+        keyLines.values().removeIf(Set::isEmpty);
+        for (String key : keys) {
+            keyLines.computeIfAbsent(key, k -> new TreeSet<>()).add(line);
         }
-        ComponentLike toSet = entry.componentSupplier().get();
-        team.addEntry("§" + lineHex + ChatColor.WHITE + "");
-        team.setPrefix(ChatUtils.toLegacy(toSet));
-        objective.getScore("§" + lineHex + ChatColor.WHITE + "").setScore(line);
+    }
+
+    /**
+     * Updates all lines that depend on the given key for all viewers. Global lines are only evaluated once.
+     *
+     * @param key the key that changed
+     */
+    public void invalidate(String key) {
+        invalidate(key, getViewers());
+    }
+
+    /**
+     * Updates all lines that depend on the given key for one viewer.
+     *
+     * @param key    the key that changed
+     * @param player the viewer to update the lines for
+     */
+    public void invalidate(String key, Player player) {
+        invalidate(key, Collections.singleton(player));
+    }
+
+    /**
+     * Updates all lines that depend on the given key for the given viewers. Global lines are only evaluated once.
+     *
+     * @param key     the key that changed
+     * @param players the viewers to update the lines for
+     */
+    public void invalidate(String key, Collection<Player> players) {
+        Set<Integer> lines = keyLines.get(key);
+        if (lines == null) {
+            return;
+        }
+        RenderCycle cycle = new RenderCycle();
+        for (Player player : players) {
+            ViewerBoard board = scoreboards.get(player);
+            if (board == null) {
+                continue;
+            }
+            for (int line : lines) {
+                updateLine(board, line, cycle);
+            }
+        }
+        cycle.flush();
+    }
+
+    /**
+     * Sets the interval in which a line is updated automatically. The updates of all viewers are spread across the
+     * interval, so that each tick only updates a share of the viewers. Global lines are still only evaluated once
+     * per interval.
+     *
+     * @param line  the line to update automatically
+     * @param ticks the interval in ticks, or 0 to only update the line manually
+     */
+    public void setRefreshInterval(int line, int ticks) {
+        refreshIntervals[line] = Integer.max(ticks, 0);
+        scheduledTexts[line] = null;
+        if (Arrays.stream(refreshIntervals).anyMatch(interval -> interval > 0)) {
+            CustomScoreboardHandler.getInstance().startRefreshing(this);
+        } else {
+            CustomScoreboardHandler.getInstance().stopRefreshing(this);
+        }
+    }
+
+    /**
+     * @param line the line to get the refresh interval for
+     * @return the interval in ticks in which the line is updated automatically, or 0 if it is only updated manually
+     */
+    public int getRefreshInterval(int line) {
+        return refreshIntervals[line];
+    }
+
+    /**
+     * Updates all lines of all viewers whose refresh interval elapsed in the given tick.
+     *
+     * @param tick the current tick of the refresh scheduler
+     */
+    void refreshDueLines(long tick) {
+        RenderCycle cycle = new RenderCycle();
+        for (ViewerBoard board : scoreboards.values()) {
+            if (!board.isRegistered()) {
+                continue;
+            }
+            for (int i = 0; i < lines; i++) {
+                int interval = refreshIntervals[i];
+                if (interval <= 0 || (tick + board.phase) % interval != 0) {
+                    continue;
+                }
+                Entry entry = entries.get(i);
+                if (entry == null || entry.isPersonal() || asyncExecutor != null) {
+                    updateLine(board, i, cycle);
+                    continue;
+                }
+                if (board.covered) {
+                    board.staleLines |= 1 << i;
+                    continue;
+                }
+                if (scheduledTexts[i] == null || tick - scheduledTicks[i] >= interval) {
+                    scheduledTexts[i] = cycle.render(i, entry, board.player);
+                    scheduledTicks[i] = tick;
+                }
+                if (scheduledTexts[i] != null) {
+                    board.setLine(i, scheduledTexts[i]);
+                }
+            }
+        }
+        cycle.flush();
     }
 
     /**
@@ -195,9 +575,9 @@ public class CustomScoreboard {
      * @param player the player to hide this scoreboard from
      */
     public void hide(Player player) {
-        Objective obj = scoreboards.get(player);
-        if (obj != null && obj.getScoreboard() != null) {
-            obj.getScoreboard().clearSlot(DisplaySlot.SIDEBAR);
+        ViewerBoard board = scoreboards.remove(player);
+        if (board != null) {
+            board.view.hide();
         }
         CustomScoreboardHandler.getInstance().unregisterScoreboard(player, this);
     }
@@ -208,7 +588,7 @@ public class CustomScoreboard {
      * @param players the players to hide this scoreboard from
      */
     public void hide(Collection<Player> players) {
-        for (Player player : players) {
+        for (Player player : new ArrayList<>(players)) {
             hide(player);
         }
     }
@@ -312,6 +692,18 @@ public class CustomScoreboard {
         this.entries.put(line, new Entry(identifier + line, entry));
     }
 
+    /**
+     * Registers a personal line that is evaluated for each viewer when the line is updated.
+     * Lines that are the same for all viewers should use {@link #setLine(int, Supplier)} instead, they are only
+     * evaluated once when multiple viewers are updated at once.
+     *
+     * @param line  the line to place the entry on
+     * @param entry the function that will be called for each viewer once the line is updated
+     */
+    public void setPlayerLine(int line, Function<Player, ComponentLike> entry) {
+        this.entries.put(line, new Entry(identifier + line, null, entry));
+    }
+
     /**
      * Sets the title of the scoreboard
      *
@@ -319,8 +711,9 @@ public class CustomScoreboard {
      */
     public void setTitle(ComponentLike component) {
         this.title = component;
-        for (Objective objective : scoreboards.values()) {
-            objective.setDisplayName(ChatUtils.toLegacy(component));
+        String legacy = ChatUtils.toLegacy(component);
+        for (ViewerBoard board : scoreboards.values()) {
+            board.view.setTitle(legacy);
         }
     }
 
@@ -331,8 +724,8 @@ public class CustomScoreboard {
      * @param player    the player to set the scoreboard title for
      */
     public void setTitle(Component component, Player player) {
-        Objective objective = scoreboards.get(player);
-        objective.setDisplayName(ChatUtils.toLegacy(component));
+        ViewerBoard board = scoreboards.get(player);
+        board.view.setTitle(ChatUtils.toLegacy(component));
     }
 
     /**
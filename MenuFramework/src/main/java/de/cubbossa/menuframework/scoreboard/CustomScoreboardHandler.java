@@ -1,7 +1,11 @@
 package de.cubbossa.menuframework.scoreboard;
 
+import de.cubbossa.menuframework.GUIHandler;
 import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 
@@ -12,9 +16,52 @@ public class CustomScoreboardHandler {
 
 	private final Map<UUID, Stack<CustomScoreboard>> scoreboards;
 
+	/**
+	 * The renderer for all scoreboards that do not define their own renderer.
+	 */
+	@Getter
+	@Setter
+	private ScoreboardRenderer defaultRenderer = new BukkitScoreboardRenderer();
+
+	private final Set<CustomScoreboard> refreshingScoreboards;
+	private long refreshTick = 0;
+	private BukkitTask refreshTask = null;
+
 	public CustomScoreboardHandler() {
 		instance = this;
 		scoreboards = new HashMap<>();
+		refreshingScoreboards = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Each player gets its own phase offset, so that the refreshes of players are spread across the refresh
+	 * interval of a line.
+	 *
+	 * @param player the player to get the phase for
+	 * @return the phase offset in ticks
+	 */
+	public int getRefreshPhase(Player player) {
+		return player.getUniqueId().hashCode() & Integer.MAX_VALUE;
+	}
+
+	protected void startRefreshing(CustomScoreboard scoreboard) {
+		refreshingScoreboards.add(scoreboard);
+		if (refreshTask == null) {
+			refreshTask = Bukkit.getScheduler().runTaskTimer(GUIHandler.getInstance().getPlugin(), () -> {
+				refreshTick++;
+				for (CustomScoreboard refreshing : new ArrayList<>(refreshingScoreboards)) {
+					refreshing.refreshDueLines(refreshTick);
+				}
+			}, 1, 1);
+		}
+	}
+
+	protected void stopRefreshing(CustomScoreboard scoreboard) {
+		refreshingScoreboards.remove(scoreboard);
+		if (refreshingScoreboards.isEmpty() && refreshTask != null) {
+			refreshTask.cancel();
+			refreshTask = null;
+		}
 	}
 
 	/**
@@ -22,12 +69,15 @@ public class CustomScoreboardHandler {
 	 * disabling the plugin to remove unexpected behaviour.
 	 */
 	public void closeAllScoreboards() {
-		scoreboards.values().forEach(customScoreboards -> {
+		Collection<Stack<CustomScoreboard>> stacks = new ArrayList<>(scoreboards.values());
+		// clear first, so that hiding does not restore the underlying scoreboards.
+		scoreboards.clear();
+		stacks.forEach(customScoreboards -> {
 			if (!customScoreboards.isEmpty()) {
 				customScoreboards.peek().hide(customScoreboards.peek().getViewers());
 			}
 		});
-		scoreboards.clear();
+		new ArrayList<>(refreshingScoreboards).forEach(this::stopRefreshing);
 	}
 
 	protected void registerScoreboard(Player player, CustomScoreboard scoreboard) {
@@ -35,18 +85,20 @@ public class CustomScoreboardHandler {
 		if (!stack.isEmpty() && stack.peek().equals(scoreboard)) {
 			return;
 		}
+		if (!stack.isEmpty()) {
+			stack.peek().cover(player);
+		}
 		stack.push(scoreboard);
 	}
 
 	protected void unregisterScoreboard(Player player, CustomScoreboard scoreboard) {
 		Stack<CustomScoreboard> stack = scoreboards.get(player.getUniqueId());
 		if (stack != null) {
+			boolean wasTop = !stack.isEmpty() && stack.peek().equals(scoreboard);
 			stack.remove(scoreboard);
-			if (!stack.isEmpty()) {
-				CustomScoreboard toShow = stack.peek();
-				if (toShow != null) {
-					toShow.show(player);
-				}
+			if (wasTop && !stack.isEmpty()) {
+				// re-assign the kept sidebar instead of building a new one.
+				stack.peek().restore(player);
 			}
 		}
 	}
@@ -0,0 +1,50 @@
+package de.cubbossa.menuframework.scoreboard;
+
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+/**
+ * Creates the client side sidebars of {@link CustomScoreboard}s. The default renderer uses Bukkit scoreboards, other
+ * renderers may send the scoreboard packets directly. Set the renderer for all scoreboards with
+ * {@link CustomScoreboardHandler#setDefaultRenderer(ScoreboardRenderer)} or for one scoreboard with
+ * {@link CustomScoreboard#setRenderer(ScoreboardRenderer)}.
+ */
+public interface ScoreboardRenderer {
+
+    /**
+     * Creates the sidebar of one viewer. The sidebar must not be visible before {@link ScoreboardView#show()} is called.
+     *
+     * @param player     the viewer of the sidebar
+     * @param identifier the identifier of the scoreboard
+     * @param title      the legacy title of the sidebar
+     * @param lines      the amount of lines, each line has a score from lines to 1
+     * @return the sidebar of the viewer
+     */
+    ScoreboardView createView(Player player, String identifier, String title, int lines);
+
+    /**
+     * @param score the score of the line
+     * @return the invisible score holder of a line, whose text is displayed as team prefix
+     */
+    static String getLineEntry(int score) {
+        return getLineEntry(score, 0);
+    }
+
+    /**
+     * Sidebars that are sent to the same client at the same time need different entries, because an entry can only
+     * be member of one team on the client.
+     *
+     * @param score   the score of the line
+     * @param variant the variant of the entry, variant 0 is the entry of {@link #getLineEntry(int)}
+     * @return the invisible score holder of a line, whose text is displayed as team prefix
+     */
+    static String getLineEntry(int score, int variant) {
+        StringBuilder entry = new StringBuilder("§").append(Integer.toHexString(score));
+        if (variant > 0) {
+            for (char digit : Integer.toHexString(variant).toCharArray()) {
+                entry.append('§').append(digit);
+            }
+        }
+        return entry.append(ChatColor.WHITE).toString();
+    }
+}
@@ -0,0 +1,36 @@
+package de.cubbossa.menuframework.scoreboard;
+
+/**
+ * The sidebar of a {@link CustomScoreboard} for one viewer, created by a {@link ScoreboardRenderer}.
+ * The scoreboard only calls the setters if a value changed since the last call.
+ */
+public interface ScoreboardView {
+
+    /**
+     * Displays the sidebar to the viewer.
+     */
+    void show();
+
+    /**
+     * Removes the sidebar from the viewer.
+     */
+    void hide();
+
+    /**
+     * @return false if the sidebar was removed, e.g. by another plugin, and cannot be updated anymore.
+     */
+    boolean isActive();
+
+    /**
+     * @param title the new legacy title
+     */
+    void setTitle(String title);
+
+    /**
+     * Sets the text of a line. The first call for a line has to register the line.
+     *
+     * @param index the index of the line from the top, starting at 0
+     * @param text  the new legacy text of the line
+     */
+    void setLine(int index, String text);
+}
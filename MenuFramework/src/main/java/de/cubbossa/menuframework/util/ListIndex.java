@@ -0,0 +1,639 @@
+package de.cubbossa.menuframework.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A list with named sort orders, filters and a text search.
+ * The list keeps one randomized search tree per sort order, and for each filter one tree per sort order that only
+ * contains the members of the filter. Each tree counts the elements of its subtrees, so that insertion, removal, index
+ * lookup and random access all take O(log n). All trees are updated incrementally with each insertion and removal, so
+ * switching the active sort order or activating a single filter only selects another tree.
+ * If several filters or a search query are active, the visible elements are collected once from the smallest selected
+ * tree, which takes O(n) per switch, and are kept up to date afterwards.
+ *
+ * @param <E> The type of the list elements. Elements are compared with {@link Object#equals(Object)} and may only be
+ *            contained once.
+ */
+public class ListIndex<E> {
+
+    private static class Node<E> {
+        private final E element;
+        private final long sequence;
+
+        private Node(E element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A treap of nodes with subtree sizes. Entries know their parents, so that a value can be removed and ranked by its
+     * identity, even if its sort keys changed since it was inserted.
+     */
+    private static class RankedTree<N> {
+
+        private static class Entry<N> {
+            private final N value;
+            private final int priority = ThreadLocalRandom.current().nextInt();
+            private int size = 1;
+            private Entry<N> parent;
+            private Entry<N> left;
+            private Entry<N> right;
+
+            private Entry(N value) {
+                this.value = value;
+            }
+        }
+
+        private final Comparator<N> comparator;
+        private final Map<N, Entry<N>> entries = new HashMap<>();
+        private Entry<N> root = null;
+
+        /**
+         * Builds the tree in O(n) without comparing elements.
+         *
+         * @param comparator The order of the tree.
+         * @param sorted     All elements in the order of the comparator.
+         */
+        private RankedTree(Comparator<N> comparator, Iterable<N> sorted) {
+            this.comparator = comparator;
+            Deque<Entry<N>> rightSpine = new ArrayDeque<>();
+            for (N value : sorted) {
+                Entry<N> entry = new Entry<>(value);
+                entries.put(value, entry);
+                Entry<N> last = null;
+                while (!rightSpine.isEmpty() && rightSpine.peek().priority < entry.priority) {
+                    last = rightSpine.pop();
+                    update(last);
+                }
+                entry.left = last;
+                if (!rightSpine.isEmpty()) {
+                    rightSpine.peek().right = entry;
+                }
+                rightSpine.push(entry);
+            }
+            while (!rightSpine.isEmpty()) {
+                root = rightSpine.pop();
+                update(root);
+            }
+        }
+
+        private int size() {
+            return size(root);
+        }
+
+        private boolean contains(N value) {
+            return entries.containsKey(value);
+        }
+
+        private N get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            Entry<N> entry = root;
+            while (true) {
+                int leftSize = size(entry.left);
+                if (index < leftSize) {
+                    entry = entry.left;
+                } else if (index == leftSize) {
+                    return entry.value;
+                } else {
+                    index -= leftSize + 1;
+                    entry = entry.right;
+                }
+            }
+        }
+
+        private int indexOf(N value) {
+            Entry<N> entry = entries.get(value);
+            if (entry == null) {
+                return -1;
+            }
+            int index = size(entry.left);
+            for (Entry<N> child = entry, parent = entry.parent; parent != null; child = parent, parent = parent.parent) {
+                if (parent.right == child) {
+                    index += size(parent.left) + 1;
+                }
+            }
+            return index;
+        }
+
+        private List<N> values() {
+            List<N> values = new ArrayList<>(size());
+            Deque<Entry<N>> stack = new ArrayDeque<>();
+            Entry<N> entry = root;
+            while (entry != null || !stack.isEmpty()) {
+                while (entry != null) {
+                    stack.push(entry);
+                    entry = entry.left;
+                }
+                entry = stack.pop();
+                values.add(entry.value);
+                entry = entry.right;
+            }
+            return values;
+        }
+
+        private void add(N value) {
+            Entry<N> entry = new Entry<>(value);
+            entries.put(value, entry);
+            Entry<N>[] split = split(root, value);
+            root = merge(merge(split[0], entry), split[1]);
+            root.parent = null;
+        }
+
+        private boolean remove(N value) {
+            Entry<N> entry = entries.remove(value);
+            if (entry == null) {
+                return false;
+            }
+            Entry<N> parent = entry.parent;
+            Entry<N> replacement = merge(entry.left, entry.right);
+            if (replacement != null) {
+                replacement.parent = parent;
+            }
+            if (parent == null) {
+                root = replacement;
+            } else if (parent.left == entry) {
+                parent.left = replacement;
+            } else {
+                parent.right = replacement;
+            }
+            for (; parent != null; parent = parent.parent) {
+                parent.size--;
+            }
+            return true;
+        }
+
+        private void clear() {
+            entries.clear();
+            root = null;
+        }
+
+        // splits into all entries smaller than the value and all others.
+        @SuppressWarnings("unchecked")
+        private Entry<N>[] split(Entry<N> entry, N value) {
+            if (entry == null) {
+                return new Entry[]{null, null};
+            }
+            if (comparator.compare(entry.value, value) < 0) {
+                Entry<N>[] split = split(entry.right, value);
+                entry.right = split[0];
+                update(entry);
+                split[0] = entry;
+                return split;
+            }
+            Entry<N>[] split = split(entry.left, value);
+            entry.left = split[1];
+            update(entry);
+            split[1] = entry;
+            return split;
+        }
+
+        private Entry<N> merge(Entry<N> left, Entry<N> right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                update(left);
+                return left;
+            }
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+
+        private static int size(Entry<?> entry) {
+            return entry == null ? 0 : entry.size;
+        }
+
+        private static <N> void update(Entry<N> entry) {
+            entry.size = 1 + size(entry.left) + size(entry.right);
+            if (entry.left != null) {
+                entry.left.parent = entry;
+            }
+            if (entry.right != null) {
+                entry.right.parent = entry;
+            }
+        }
+    }
+
+    /**
+     * A set of nodes in the insertion order and in all registered sort orders.
+     */
+    private class Orders {
+        private final RankedTree<Node<E>> insertion;
+        private final Map<String, RankedTree<Node<E>>> sorted = new HashMap<>();
+
+        private Orders(Iterable<Node<E>> inserted) {
+            this.insertion = new RankedTree<>(insertionComparator, inserted);
+        }
+
+        private RankedTree<Node<E>> get(@Nullable String sort) {
+            return sort == null ? insertion : sorted.get(sort);
+        }
+
+        private boolean contains(Node<E> node) {
+            return insertion.contains(node);
+        }
+
+        private void add(Node<E> node) {
+            insertion.add(node);
+            sorted.values().forEach(order -> order.add(node));
+        }
+
+        private void remove(Node<E> node) {
+            if (insertion.remove(node)) {
+                sorted.values().forEach(order -> order.remove(node));
+            }
+        }
+
+        private void clear() {
+            insertion.clear();
+            sorted.values().forEach(RankedTree::clear);
+        }
+    }
+
+    private final Comparator<Node<E>> insertionComparator = Comparator.comparingLong(node -> node.sequence);
+
+    private final Map<E, Node<E>> nodes;
+    // all elements
+    private final Orders elements;
+    private final Map<String, Comparator<Node<E>>> comparators;
+    private final Map<String, Predicate<E>> filters;
+    // the members of each filter
+    private final Map<String, Orders> filterMembers;
+    private final SearchIndex<Node<E>> searchIndex;
+    private @Nullable Function<E, String> searchKey = null;
+    private long sequence = 0;
+
+    private @Nullable String activeSort = null;
+    private final Set<String> activeFilters;
+    private @Nullable String activeQuery = null;
+    private @Nullable Set<Node<E>> queryResult = null;
+    // all visible elements in the active order, null if it has to be selected or collected again.
+    private @Nullable RankedTree<Node<E>> view = null;
+    // whether the view was collected for several filters or a search and has to be updated separately.
+    private boolean viewCollected = false;
+
+    public ListIndex() {
+        this.nodes = new HashMap<>();
+        this.elements = new Orders(Collections.emptyList());
+        this.comparators = new HashMap<>();
+        this.filters = new HashMap<>();
+        this.filterMembers = new HashMap<>();
+        this.searchIndex = new SearchIndex<>();
+        this.activeFilters = new HashSet<>();
+    }
+
+    /**
+     * Appends an element to the list and inserts it into all sort orders, filters and the search index.
+     *
+     * @param element The element to add.
+     */
+    public void add(E element) {
+        if (nodes.containsKey(element)) {
+            return;
+        }
+        insert(new Node<>(element, sequence++));
+    }
+
+    /**
+     * Removes an element from the list and all indexes in O(log n) per sort order and filter.
+     *
+     * @param element The element to remove.
+     * @return true if the element was part of this list.
+     */
+    public boolean remove(E element) {
+        Node<E> node = nodes.get(element);
+        if (node == null) {
+            return false;
+        }
+        delete(node);
+        return true;
+    }
+
+    /**
+     * Removes the element that was added last.
+     *
+     * @return The removed element or null if the list is empty.
+     */
+    public @Nullable E removeLast() {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        Node<E> node = elements.insertion.get(nodes.size() - 1);
+        delete(node);
+        return node.element;
+    }
+
+    /**
+     * Indexes an element again after its sort keys, filter results or search key changed. The element keeps its
+     * position in the insertion order. Takes O(log n) per sort order and filter, like a removal and an insertion.
+     *
+     * @param element The element to update.
+     * @return true if the element was part of this list.
+     */
+    public boolean update(E element) {
+        Node<E> node = nodes.get(element);
+        if (node == null) {
+            return false;
+        }
+        delete(node);
+        insert(node);
+        return true;
+    }
+
+    public void clear() {
+        nodes.clear();
+        elements.clear();
+        filterMembers.values().forEach(Orders::clear);
+        searchIndex.clear();
+        if (queryResult != null) {
+            queryResult.clear();
+        }
+        view = null;
+    }
+
+    public boolean contains(E element) {
+        return nodes.containsKey(element);
+    }
+
+    /**
+     * @return The amount of elements that pass the active filters and search.
+     */
+    public int size() {
+        return view().size();
+    }
+
+    /**
+     * @return The amount of all elements, regardless of the active filters and search.
+     */
+    public int totalSize() {
+        return nodes.size();
+    }
+
+    /**
+     * @param index The index within the visible elements in the active order.
+     * @return The element at the given index.
+     */
+    public E get(int index) {
+        return view().get(index).element;
+    }
+
+    /**
+     * @param element The element to find.
+     * @return The index of the element within the visible elements in the active order or -1 if it is not visible.
+     */
+    public int indexOf(E element) {
+        Node<E> node = nodes.get(element);
+        if (node == null) {
+            return -1;
+        }
+        return view().indexOf(node);
+    }
+
+    /**
+     * @param from The first index, inclusive.
+     * @param to   The last index, exclusive.
+     * @return All visible elements between the given indices in the active order.
+     */
+    public List<E> slice(int from, int to) {
+        RankedTree<Node<E>> view = view();
+        List<E> elements = new ArrayList<>(Integer.max(to - from, 0));
+        for (int i = from; i < to && i < view.size(); i++) {
+            elements.add(view.get(i).element);
+        }
+        return elements;
+    }
+
+    /**
+     * Registers a sort order. All elements are sorted once, afterwards the order is kept up to date with each insertion.
+     *
+     * @param name       The name to activate the sort order with {@link #setSort(String)}.
+     * @param comparator The comparator of the sort order. Elements that are equal keep their insertion order.
+     */
+    public void addSort(String name, Comparator<E> comparator) {
+        Comparator<Node<E>> nodeComparator = (a, b) -> {
+            int result = comparator.compare(a.element, b.element);
+            return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+        };
+        List<Node<E>> sorted = new ArrayList<>(nodes.values());
+        sorted.sort(nodeComparator);
+        comparators.put(name, nodeComparator);
+        elements.sorted.put(name, new RankedTree<>(nodeComparator, sorted));
+        // the members of a filter keep the order of all elements, so they don't have to be sorted again
+        filterMembers.values().forEach(members -> members.sorted.put(name, new RankedTree<>(nodeComparator,
+                sorted.stream().filter(members::contains).collect(Collectors.toList()))));
+        if (name.equals(activeSort)) {
+            view = null;
+        }
+    }
+
+    public void removeSort(String name) {
+        comparators.remove(name);
+        elements.sorted.remove(name);
+        filterMembers.values().forEach(members -> members.sorted.remove(name));
+        if (name.equals(activeSort)) {
+            setSort(null);
+        }
+    }
+
+    /**
+     * @param name The name of a registered sort order or null to use the insertion order.
+     */
+    public void setSort(@Nullable String name) {
+        if (name != null && !comparators.containsKey(name)) {
+            throw new IllegalArgumentException("No sort order registered with name '" + name + "'.");
+        }
+        if (!Objects.equals(activeSort, name)) {
+            activeSort = name;
+            view = null;
+        }
+    }
+
+    public @Nullable String getSort() {
+        return activeSort;
+    }
+
+    /**
+     * Registers a filter. All elements are tested once, afterwards the filter is only tested for inserted elements.
+     *
+     * @param name   The name to activate the filter with {@link #setFilters(String...)}.
+     * @param filter The predicate that an element has to pass to be visible while the filter is active.
+     */
+    public void addFilter(String name, Predicate<E> filter) {
+        Set<Node<E>> passed = new HashSet<>();
+        for (Node<E> node : nodes.values()) {
+            if (filter.test(node.element)) {
+                passed.add(node);
+            }
+        }
+        Orders members = new Orders(elements.insertion.values().stream().filter(passed::contains).collect(Collectors.toList()));
+        elements.sorted.forEach((sort, order) -> members.sorted.put(sort, new RankedTree<>(comparators.get(sort),
+                order.values().stream().filter(passed::contains).collect(Collectors.toList()))));
+        filters.put(name, filter);
+        filterMembers.put(name, members);
+        if (activeFilters.contains(name)) {
+            view = null;
+        }
+    }
+
+    public void removeFilter(String name) {
+        filters.remove(name);
+        filterMembers.remove(name);
+        if (activeFilters.remove(name)) {
+            view = null;
+        }
+    }
+
+    /**
+     * @param names The names of all filters that an element has to pass to be visible. No names to show all elements.
+     */
+    public void setFilters(String... names) {
+        Set<String> filters = new HashSet<>(Arrays.asList(names));
+        for (String name : filters) {
+            if (!filterMembers.containsKey(name)) {
+                throw new IllegalArgumentException("No filter registered with name '" + name + "'.");
+            }
+        }
+        if (!activeFilters.equals(filters)) {
+            activeFilters.clear();
+            activeFilters.addAll(filters);
+            view = null;
+        }
+    }
+
+    public Set<String> getFilters() {
+        return Collections.unmodifiableSet(activeFilters);
+    }
+
+    /**
+     * Sets the text that elements can be searched by with {@link #search(String)}. All elements are indexed once.
+     *
+     * @param searchKey The function that returns the search text of an element or null if it cannot be found.
+     */
+    public void setSearchKey(@Nullable Function<E, String> searchKey) {
+        this.searchKey = searchKey;
+        searchIndex.clear();
+        if (searchKey != null) {
+            nodes.values().forEach(this::indexSearchKey);
+        }
+        search(activeQuery);
+    }
+
+    /**
+     * Narrows the visible elements down to all elements whose search key contains the query, ignoring case.
+     *
+     * @param query The text to search for or null to show all elements.
+     */
+    public void search(@Nullable String query) {
+        if (query == null || query.isEmpty()) {
+            activeQuery = null;
+            queryResult = null;
+        } else {
+            activeQuery = query;
+            queryResult = searchIndex.search(query);
+        }
+        view = null;
+    }
+
+    public @Nullable String getQuery() {
+        return activeQuery;
+    }
+
+    private void insert(Node<E> node) {
+        nodes.put(node.element, node);
+        elements.add(node);
+        filters.forEach((name, filter) -> {
+            if (filter.test(node.element)) {
+                filterMembers.get(name).add(node);
+            }
+        });
+        indexSearchKey(node);
+        if (queryResult != null && searchIndex.matches(node, activeQuery)) {
+            queryResult.add(node);
+        }
+        if (view != null && viewCollected && isVisible(node)) {
+            view.add(node);
+        }
+    }
+
+    private void delete(Node<E> node) {
+        if (view != null && viewCollected) {
+            view.remove(node);
+        }
+        nodes.remove(node.element);
+        elements.remove(node);
+        filterMembers.values().forEach(members -> members.remove(node));
+        searchIndex.remove(node);
+        if (queryResult != null) {
+            queryResult.remove(node);
+        }
+    }
+
+    private void indexSearchKey(Node<E> node) {
+        if (searchKey == null) {
+            return;
+        }
+        String key = searchKey.apply(node.element);
+        if (key != null) {
+            searchIndex.add(node, key);
+        }
+    }
+
+    private boolean isVisible(Node<E> node) {
+        for (String filter : activeFilters) {
+            if (!filterMembers.get(filter).contains(node)) {
+                return false;
+            }
+        }
+        return queryResult == null || queryResult.contains(node);
+    }
+
+    private Comparator<Node<E>> activeComparator() {
+        return activeSort == null ? insertionComparator : comparators.get(activeSort);
+    }
+
+    private RankedTree<Node<E>> view() {
+        if (view == null) {
+            if (activeFilters.isEmpty() && queryResult == null) {
+                view = elements.get(activeSort);
+                viewCollected = false;
+                return view;
+            }
+            if (activeFilters.size() == 1 && queryResult == null) {
+                view = filterMembers.get(activeFilters.iterator().next()).get(activeSort);
+                viewCollected = false;
+                return view;
+            }
+            // collect the visible elements from the smallest selected order
+            RankedTree<Node<E>> order = elements.get(activeSort);
+            for (String filter : activeFilters) {
+                RankedTree<Node<E>> members = filterMembers.get(filter).get(activeSort);
+                if (members.size() < order.size()) {
+                    order = members;
+                }
+            }
+            List<Node<E>> visible = new ArrayList<>(order.size());
+            for (Node<E> node : order.values()) {
+                if (isVisible(node)) {
+                    visible.add(node);
+                }
+            }
+            view = new RankedTree<>(activeComparator(), visible);
+            viewCollected = true;
+        }
+        return view;
+    }
+}
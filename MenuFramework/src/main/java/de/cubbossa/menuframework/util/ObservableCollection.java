@@ -0,0 +1,124 @@
+package de.cubbossa.menuframework.util;
+
+import java.util.*;
+
+/**
+ * A collection that notifies its observers about every insertion, removal and update of an element.
+ * It does not allow duplicate elements.
+ *
+ * @param <T> The type of the elements.
+ */
+public class ObservableCollection<T> extends AbstractCollection<T> {
+
+    public interface Observer<T> {
+
+        void onAdd(T element);
+
+        void onRemove(T element);
+
+        /**
+         * Called if {@link #update(Object)} was called for an element, e.g. because its display name changed.
+         *
+         * @param element The changed element.
+         */
+        void onUpdate(T element);
+    }
+
+    private final Set<T> elements;
+    private final List<Observer<T>> observers;
+
+    public ObservableCollection() {
+        this.elements = new LinkedHashSet<>();
+        this.observers = new ArrayList<>();
+    }
+
+    public ObservableCollection(Collection<? extends T> elements) {
+        this();
+        this.elements.addAll(elements);
+    }
+
+    public void subscribe(Observer<T> observer) {
+        observers.add(observer);
+    }
+
+    public void unsubscribe(Observer<T> observer) {
+        observers.remove(observer);
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (!elements.add(element)) {
+            return false;
+        }
+        for (Observer<T> observer : new ArrayList<>(observers)) {
+            observer.onAdd(element);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (!elements.remove(object)) {
+            return false;
+        }
+        notifyRemove((T) object);
+        return true;
+    }
+
+    /**
+     * Notifies all observers that the given element changed.
+     *
+     * @param element The changed element.
+     * @return true if the element is part of this collection.
+     */
+    public boolean update(T element) {
+        if (!elements.contains(element)) {
+            return false;
+        }
+        for (Observer<T> observer : new ArrayList<>(observers)) {
+            observer.onUpdate(element);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return elements.contains(object);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = elements.iterator();
+        return new Iterator<>() {
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                notifyRemove(current);
+            }
+        };
+    }
+
+    private void notifyRemove(T element) {
+        for (Observer<T> observer : new ArrayList<>(observers)) {
+            observer.onRemove(element);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package de.cubbossa.menuframework.util;
+
+import java.util.*;
+
+/**
+ * A case insensitive substring index over text keys.
+ * Each key is split into all of its characters and character pairs, so that a query only has to check the keys that
+ * contain the rarest pair of the query instead of every key. Keys are additionally kept in sorted order, so that all
+ * keys starting with a query are found as one range.
+ *
+ * @param <E> The type of the indexed elements. Elements are compared with {@link Object#equals(Object)}.
+ */
+public class SearchIndex<E> {
+
+    private final Map<E, String> keys;
+    private final Map<String, Set<E>> grams;
+    private final NavigableMap<String, Set<E>> prefixes;
+
+    public SearchIndex() {
+        this.keys = new HashMap<>();
+        this.grams = new HashMap<>();
+        this.prefixes = new TreeMap<>();
+    }
+
+    /**
+     * Adds an element or replaces the key of an element that has already been added.
+     *
+     * @param element The element to index.
+     * @param key     The text to find the element by.
+     */
+    public void add(E element, String key) {
+        remove(element);
+        String lower = key.toLowerCase(Locale.ROOT);
+        keys.put(element, lower);
+        prefixes.computeIfAbsent(lower, k -> new LinkedHashSet<>()).add(element);
+        for (String gram : grams(lower)) {
+            grams.computeIfAbsent(gram, k -> new HashSet<>()).add(element);
+        }
+    }
+
+    /**
+     * @param element The element to remove from the index.
+     * @return true if the element was part of the index.
+     */
+    public boolean remove(E element) {
+        String key = keys.remove(element);
+        if (key == null) {
+            return false;
+        }
+        Set<E> elements = prefixes.get(key);
+        if (elements != null && elements.remove(element) && elements.isEmpty()) {
+            prefixes.remove(key);
+        }
+        for (String gram : grams(key)) {
+            Set<E> set = grams.get(gram);
+            if (set != null && set.remove(element) && set.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        keys.clear();
+        grams.clear();
+        prefixes.clear();
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * @param element The element to check.
+     * @param query   The text to search for.
+     * @return true if the key of the element contains the query, ignoring case.
+     */
+    public boolean matches(E element, String query) {
+        String key = keys.get(element);
+        return key != null && key.contains(query.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param query The text to search for.
+     * @return All elements whose key contains the query, ignoring case. All elements if the query is empty.
+     */
+    public Set<E> search(String query) {
+        String lower = query.toLowerCase(Locale.ROOT);
+        if (lower.isEmpty()) {
+            return new HashSet<>(keys.keySet());
+        }
+        Set<E> smallest = null;
+        for (String gram : lower.length() == 1 ? Collections.singleton(lower) : pairs(lower)) {
+            Set<E> set = grams.get(gram);
+            if (set == null) {
+                return new HashSet<>();
+            }
+            if (smallest == null || set.size() < smallest.size()) {
+                smallest = set;
+            }
+        }
+        Set<E> result = new HashSet<>();
+        for (E element : smallest) {
+            if (keys.get(element).contains(lower)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the best matches of a query without collecting all matching elements.
+     * Keys equal to the query come first, then keys that start with the query in alphabetical order and then keys that
+     * contain the query, ordered by the position of the query and by key length.
+     *
+     * @param query The text to search for.
+     * @param limit The maximum amount of elements to return.
+     * @return The best matching elements, at most limit elements.
+     */
+    public List<E> search(String query, int limit) {
+        List<E> result = new ArrayList<>(Integer.min(limit, keys.size()));
+        if (limit <= 0) {
+            return result;
+        }
+        String lower = query.toLowerCase(Locale.ROOT);
+        // the sorted keys start with the exact match, followed by all other keys with the query as prefix
+        for (Set<E> elements : prefixes.subMap(lower, true, lower + Character.MAX_VALUE, false).values()) {
+            for (E element : elements) {
+                result.add(element);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+        }
+        if (lower.isEmpty()) {
+            return result;
+        }
+        Set<E> smallest = null;
+        for (String gram : lower.length() == 1 ? Collections.singleton(lower) : pairs(lower)) {
+            Set<E> set = grams.get(gram);
+            if (set == null) {
+                return result;
+            }
+            if (smallest == null || set.size() < smallest.size()) {
+                smallest = set;
+            }
+        }
+        // keep the best remaining matches, the worst one on top so that it can be replaced
+        int remaining = limit - result.size();
+        Comparator<Map.Entry<E, int[]>> rank = Comparator.<Map.Entry<E, int[]>>comparingInt(e -> e.getValue()[0])
+                .thenComparingInt(e -> e.getValue()[1]);
+        PriorityQueue<Map.Entry<E, int[]>> best = new PriorityQueue<>(remaining + 1, rank.reversed());
+        for (E element : smallest) {
+            String key = keys.get(element);
+            int index = key.indexOf(lower);
+            // prefix matches have already been added
+            if (index <= 0) {
+                continue;
+            }
+            best.add(new AbstractMap.SimpleEntry<>(element, new int[]{index, key.length()}));
+            if (best.size() > remaining) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<E, int[]>> sorted = new ArrayList<>(best);
+        sorted.sort(rank);
+        for (Map.Entry<E, int[]> entry : sorted) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String key) {
+        Set<String> grams = pairs(key);
+        for (int i = 0; i < key.length(); i++) {
+            grams.add(key.substring(i, i + 1));
+        }
+        return grams;
+    }
+
+    private static Set<String> pairs(String key) {
+        Set<String> pairs = new HashSet<>();
+        for (int i = 0; i < key.length() - 1; i++) {
+            pairs.add(key.substring(i, i + 2));
+        }
+        return pairs;
+    }
+}
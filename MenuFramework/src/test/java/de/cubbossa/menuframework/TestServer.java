@@ -0,0 +1,75 @@
+package de.cubbossa.menuframework;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A server that runs everything on the calling thread and ignores scheduled tasks and listeners.
+ * Bukkit only accepts one server per JVM, so all tests share the server and the gui handler that are set up here,
+ * regardless of the order in which the test classes are run.
+ */
+public final class TestServer {
+
+    private static GUIHandler guiHandler = null;
+
+    private TestServer() {
+    }
+
+    /**
+     * Installs the test server and creates the gui handler, if that did not happen yet.
+     *
+     * @return The gui handler that is shared by all tests.
+     */
+    public static synchronized GUIHandler setup() {
+        if (Bukkit.getServer() == null) {
+            BukkitTask task = (BukkitTask) Proxy.newProxyInstance(BukkitTask.class.getClassLoader(),
+                    new Class[]{BukkitTask.class}, (proxy, method, args) -> null);
+            BukkitScheduler scheduler = (BukkitScheduler) Proxy.newProxyInstance(BukkitScheduler.class.getClassLoader(),
+                    new Class[]{BukkitScheduler.class}, (proxy, method, args) -> method.getReturnType() == BukkitTask.class ? task : null);
+            PluginManager pluginManager = (PluginManager) Proxy.newProxyInstance(PluginManager.class.getClassLoader(),
+                    new Class[]{PluginManager.class}, (proxy, method, args) -> null);
+            // item metas that accept every change and keep nothing, enough to create the icons of the menu presets
+            ItemMeta meta = (ItemMeta) Proxy.newProxyInstance(ItemMeta.class.getClassLoader(),
+                    new Class[]{ItemMeta.class}, (proxy, method, args) -> method.getReturnType() == ItemMeta.class ? proxy : defaultValue(method.getReturnType()));
+            ItemFactory itemFactory = (ItemFactory) Proxy.newProxyInstance(ItemFactory.class.getClassLoader(),
+                    new Class[]{ItemFactory.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "getItemMeta", "asMetaFor" -> meta;
+                        case "isApplicable" -> true;
+                        case "updateMaterial" -> args[1];
+                        default -> defaultValue(method.getReturnType());
+                    });
+            Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class[]{Server.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getLogger" -> Logger.getLogger("Server");
+                case "getScheduler" -> scheduler;
+                case "getPluginManager" -> pluginManager;
+                case "getItemFactory" -> itemFactory;
+                case "getOnlinePlayers" -> List.of();
+                case "isPrimaryThread" -> true;
+                default -> null;
+            }));
+        }
+        if (guiHandler == null) {
+            guiHandler = new GUIHandler(null);
+        }
+        return guiHandler;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
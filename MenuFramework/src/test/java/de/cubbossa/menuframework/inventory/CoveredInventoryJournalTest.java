@@ -0,0 +1,202 @@
+package de.cubbossa.menuframework.inventory;
+
+import de.cubbossa.menuframework.TestServer;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+public class CoveredInventoryJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupServer() {
+        TestServer.setup();
+    }
+
+    // the slots that are set when the covered items of the player are restored
+    private static Set<Integer> restore(CoveredInventoryJournal journal, UUID uuid) {
+        Set<Integer> slots = new TreeSet<>();
+        PlayerInventory inventory = (PlayerInventory) Proxy.newProxyInstance(PlayerInventory.class.getClassLoader(), new Class[]{PlayerInventory.class}, (proxy, method, args) -> {
+            if (method.getName().equals("setItem") && args[0] instanceof Integer slot) {
+                Assert.assertNull(args[1]);
+                slots.add(slot);
+            }
+            return null;
+        });
+        journal.restore((Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class[]{Player.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getInventory" -> inventory;
+            default -> null;
+        }));
+        return slots;
+    }
+
+    // the offsets of all records in the journal file that would be replayed, without checking their crc
+    private static List<Integer> records(File file) throws IOException {
+        List<Integer> offsets = new ArrayList<>();
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            int at = Integer.BYTES;
+            while (at + Integer.BYTES * 2 <= in.length()) {
+                in.seek(at);
+                int length = in.readInt();
+                if (length <= 0 || at + Integer.BYTES * 2 + length > in.length()) {
+                    break;
+                }
+                offsets.add(at);
+                at += Integer.BYTES * 2 + length;
+            }
+        }
+        return offsets;
+    }
+
+    @Test
+    public void writeAndReplay() throws IOException {
+        File file = new File(folder.newFolder(), "covered.journal");
+        UUID covered = UUID.randomUUID();
+        UUID released = UUID.randomUUID();
+
+        CoveredInventoryJournal journal = new CoveredInventoryJournal(file, 20);
+        journal.write(covered, 0b101, new ItemStack[36]);
+        journal.write(released, 0b11, new ItemStack[36]);
+        journal.close();
+
+        journal = new CoveredInventoryJournal(file, 20);
+        journal.write(released, 0, null);
+        journal.close();
+
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(0, 2), restore(journal, covered));
+        Assert.assertEquals(Set.of(), restore(journal, released));
+        // restoring releases the items
+        Assert.assertEquals(Set.of(), restore(journal, covered));
+        journal.close();
+
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(), restore(journal, covered));
+        journal.close();
+    }
+
+    @Test
+    public void tornRecordIsNotReplayed() throws IOException {
+        File file = new File(folder.newFolder(), "covered.journal");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        CoveredInventoryJournal journal = new CoveredInventoryJournal(file, 20);
+        journal.write(first, 0b1, new ItemStack[36]);
+        journal.close();
+        journal = new CoveredInventoryJournal(file, 20);
+        journal.write(second, 0b10, new ItemStack[36]);
+        journal.close();
+
+        // the length is written last, a crash before writing it leaves the record without length
+        List<Integer> records = records(file);
+        Assert.assertEquals(2, records.size());
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(records.get(1));
+            out.writeInt(0);
+        }
+
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(), restore(journal, second));
+        journal.write(third, 0b100, new ItemStack[36]);
+        journal.close();
+
+        // the torn record is overwritten by the next record
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(0), restore(journal, first));
+        Assert.assertEquals(Set.of(), restore(journal, second));
+        Assert.assertEquals(Set.of(2), restore(journal, third));
+        journal.close();
+    }
+
+    @Test
+    public void crcMismatchStopsReplay() throws IOException {
+        File file = new File(folder.newFolder(), "covered.journal");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        CoveredInventoryJournal journal = new CoveredInventoryJournal(file, 20);
+        journal.write(first, 0b1, new ItemStack[36]);
+        journal.close();
+        journal = new CoveredInventoryJournal(file, 20);
+        journal.write(second, 0b10, new ItemStack[36]);
+        journal.close();
+        journal = new CoveredInventoryJournal(file, 20);
+        journal.write(third, 0b100, new ItemStack[36]);
+        journal.close();
+
+        // corrupt the covered slots of the second record
+        List<Integer> records = records(file);
+        Assert.assertEquals(3, records.size());
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(records.get(1) + Integer.BYTES * 2 + Long.BYTES * 3 - 1);
+            out.writeByte(0b11);
+        }
+
+        // records after the corrupted one are not trusted either
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(0), restore(journal, first));
+        Assert.assertEquals(Set.of(), restore(journal, second));
+        Assert.assertEquals(Set.of(), restore(journal, third));
+        journal.close();
+    }
+
+    @Test
+    public void compactionKeepsLiveRecords() throws IOException {
+        File file = new File(folder.newFolder(), "covered.journal");
+        UUID covered = UUID.randomUUID();
+        List<UUID> firstRound = new ArrayList<>();
+
+        CoveredInventoryJournal journal = new CoveredInventoryJournal(file, 20);
+        journal.write(covered, 0b1, new ItemStack[36]);
+        journal.close();
+        // cover and release the whole inventory of many players until the journal mainly consists of outdated records
+        for (int round = 0; round < 8; round++) {
+            List<UUID> players = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                players.add(UUID.randomUUID());
+            }
+            if (round == 0) {
+                firstRound.addAll(players);
+            }
+            CoveredInventoryJournal covering = new CoveredInventoryJournal(file, 20);
+            players.forEach(uuid -> covering.write(uuid, 0xfffffffffL, new ItemStack[36]));
+            covering.close();
+            CoveredInventoryJournal releasing = new CoveredInventoryJournal(file, 20);
+            players.forEach(uuid -> releasing.write(uuid, 0, null));
+            releasing.close();
+        }
+
+        Assert.assertFalse(new File(file.getPath() + ".tmp").exists());
+        Set<UUID> recorded = new HashSet<>();
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            for (int at : records(file)) {
+                in.seek(at + Integer.BYTES * 2);
+                recorded.add(new UUID(in.readLong(), in.readLong()));
+            }
+        }
+        Assert.assertTrue(recorded.contains(covered));
+        Assert.assertTrue(Collections.disjoint(recorded, firstRound));
+
+        journal = new CoveredInventoryJournal(file, 20);
+        Assert.assertEquals(Set.of(0), restore(journal, covered));
+        Assert.assertEquals(Set.of(), restore(journal, firstRound.get(0)));
+        journal.close();
+    }
+}
@@ -0,0 +1,84 @@
+package de.cubbossa.menuframework.inventory;
+
+import de.cubbossa.menuframework.TestServer;
+import de.cubbossa.menuframework.inventory.context.ClickContext;
+import de.cubbossa.menuframework.inventory.context.ContextConsumer;
+import de.cubbossa.menuframework.inventory.implementations.ListMenu;
+import net.kyori.adventure.text.Component;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class MenuPresetsTest {
+
+    @BeforeClass
+    public static void setupServer() {
+        TestServer.setup();
+    }
+
+    private static class StringManager implements ListMenuManagerSupplier<String> {
+        private final List<String> elements = new ArrayList<>(List.of("a", "b", "c"));
+
+        @Override
+        public Collection<String> getElements() {
+            return elements;
+        }
+
+        @Override
+        public ItemStack getDisplayItem(String object) {
+            return null;
+        }
+
+        @Override
+        public boolean deleteFromMenu(String object) {
+            return elements.remove(object);
+        }
+
+        @Override
+        public boolean duplicateElementFromMenu(String object) {
+            return elements.add(object + "'");
+        }
+
+        @Override
+        public boolean newElementFromMenu(Object[] args) {
+            return false;
+        }
+    }
+
+    // clicks the slot of the menu like a player would and returns whether a click handler ran
+    private static boolean click(ListMenu menu, int slot, Action<ClickContext> action) {
+        ContextConsumer<ClickContext> handler = (ContextConsumer<ClickContext>) menu.getClickHandler(slot, action);
+        if (handler == null) {
+            return false;
+        }
+        handler.accept(new ClickContext(null, menu, slot, action, true));
+        return true;
+    }
+
+    @Test
+    public void managerChangesAreShownAfterRefresh() {
+        StringManager manager = new StringManager();
+        List<String> clicked = new ArrayList<>();
+        ListMenu menu = MenuPresets.newListMenu(Component.text("Strings"), 3, manager, Action.LEFT, c -> clicked.add(c.getTarget()));
+
+        Assert.assertTrue(click(menu, 0, Action.LEFT));
+        Assert.assertEquals(List.of("a"), clicked);
+
+        // the deleted element disappears from the page and the following elements move up
+        Assert.assertTrue(click(menu, 0, Action.RIGHT));
+        Assert.assertTrue(click(menu, 0, Action.LEFT));
+        Assert.assertTrue(click(menu, 1, Action.LEFT));
+        Assert.assertFalse(click(menu, 2, Action.LEFT));
+        Assert.assertEquals(List.of("a", "b", "c"), clicked);
+
+        // the duplicate is appended to the page
+        Assert.assertTrue(click(menu, 1, Action.MIDDLE));
+        Assert.assertTrue(click(menu, 2, Action.LEFT));
+        Assert.assertEquals(List.of("a", "b", "c", "c'"), clicked);
+    }
+}
@@ -0,0 +1,83 @@
+package de.cubbossa.menuframework.scoreboard;
+
+import de.cubbossa.menuframework.TestServer;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CustomScoreboardTest {
+
+    @BeforeClass
+    public static void setupServer() {
+        TestServer.setup();
+        new CustomScoreboardHandler();
+    }
+
+    @Test
+    public void asyncRefreshIntervalUpdatesLine() {
+        UUID uuid = UUID.randomUUID();
+        Player player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class[]{Player.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "isOnline" -> true;
+            case "hashCode" -> uuid.hashCode();
+            case "equals" -> proxy == args[0];
+            default -> null;
+        });
+        String[] shownLines = new String[1];
+        Queue<Runnable> tasks = new LinkedList<>();
+        AtomicInteger evaluations = new AtomicInteger();
+
+        CustomScoreboard scoreboard = new CustomScoreboard("async", Component.text("Async"), 1);
+        scoreboard.setRenderer((viewer, identifier, title, lines) -> new ScoreboardView() {
+            public void show() {
+            }
+
+            public void hide() {
+            }
+
+            public boolean isActive() {
+                return true;
+            }
+
+            public void setTitle(String title) {
+            }
+
+            public void setLine(int index, String text) {
+                shownLines[index] = text;
+            }
+        });
+        scoreboard.setAsyncExecutor(tasks::add);
+        scoreboard.setLine(0, () -> Component.text(evaluations.incrementAndGet()));
+        scoreboard.setRefreshInterval(0, 1);
+
+        scoreboard.show(player);
+        Assert.assertEquals(1, tasks.size());
+        tasks.poll().run();
+        Assert.assertEquals("1", shownLines[0]);
+
+        scoreboard.refreshDueLines(1);
+        Assert.assertEquals(1, tasks.size());
+        tasks.poll().run();
+        Assert.assertEquals("2", shownLines[0]);
+
+        scoreboard.refreshDueLines(2);
+        scoreboard.refreshDueLines(3);
+        Assert.assertEquals(2, tasks.size());
+        // the result of the first tick is outdated once the second tick requested the line again
+        tasks.poll().run();
+        Assert.assertEquals("2", shownLines[0]);
+        tasks.poll().run();
+        Assert.assertEquals("4", shownLines[0]);
+
+        scoreboard.hide(player);
+        scoreboard.setRefreshInterval(0, 0);
+    }
+}
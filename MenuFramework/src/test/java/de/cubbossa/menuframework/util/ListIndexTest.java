@@ -0,0 +1,142 @@
+package de.cubbossa.menuframework.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class ListIndexTest {
+
+    @Test
+    public void sortIsUpdatedIncrementally() {
+        ListIndex<String> index = new ListIndex<>();
+        List.of("pear", "apple", "banana", "cherry", "apricot").forEach(index::add);
+        index.addSort("alphabetical", Comparator.naturalOrder());
+        index.setSort("alphabetical");
+        Assert.assertEquals(List.of("apple", "apricot", "banana", "cherry", "pear"), index.slice(0, 10));
+        index.add("avocado");
+        index.remove("banana");
+        Assert.assertEquals(List.of("apple", "apricot", "avocado", "cherry", "pear"), index.slice(0, 10));
+        index.setSort(null);
+        Assert.assertEquals(List.of("pear", "apple", "cherry", "apricot", "avocado"), index.slice(0, 10));
+    }
+
+    @Test
+    public void filterAndSearch() {
+        ListIndex<String> index = new ListIndex<>();
+        List.of("pear", "apple", "banana", "cherry", "apricot").forEach(index::add);
+        index.addFilter("a", s -> s.startsWith("a"));
+        index.setSearchKey(s -> s);
+        index.setFilters("a");
+        Assert.assertEquals(List.of("apple", "apricot"), index.slice(0, 10));
+        index.setFilters();
+        index.search("AN");
+        Assert.assertEquals(List.of("banana"), index.slice(0, 10));
+        index.add("mango");
+        Assert.assertEquals(List.of("banana", "mango"), index.slice(0, 10));
+        Assert.assertEquals(1, index.indexOf("mango"));
+        Assert.assertEquals(-1, index.indexOf("pear"));
+        index.search(null);
+        Assert.assertEquals(6, index.size());
+    }
+
+    @Test
+    public void removeLast() {
+        ListIndex<String> index = new ListIndex<>();
+        List.of("pear", "apple", "banana").forEach(index::add);
+        index.addSort("alphabetical", Comparator.naturalOrder());
+        index.setSort("alphabetical");
+        Assert.assertEquals("banana", index.removeLast());
+        Assert.assertEquals(2, index.totalSize());
+        Assert.assertEquals(List.of("apple", "pear"), index.slice(0, 10));
+    }
+
+    @Test
+    public void updateMovesElement() {
+        ListIndex<int[]> index = new ListIndex<>();
+        int[] a = {1};
+        int[] b = {2};
+        int[] c = {3};
+        index.add(a);
+        index.add(b);
+        index.add(c);
+        index.addSort("value", Comparator.comparingInt(e -> e[0]));
+        index.addSort("reversed", Comparator.comparingInt(e -> -e[0]));
+        index.addFilter("odd", e -> e[0] % 2 == 1);
+        index.setSort("value");
+        Assert.assertEquals(0, index.indexOf(a));
+
+        a[0] = 5;
+        index.update(a);
+        Assert.assertEquals(2, index.indexOf(a));
+        Assert.assertEquals(0, index.indexOf(b));
+        Assert.assertSame(c, index.get(1));
+
+        // the inactive sort order and the filter follow the changed sort key as well
+        index.setSort("reversed");
+        Assert.assertSame(a, index.get(0));
+        Assert.assertSame(b, index.get(2));
+        index.setFilters("odd");
+        Assert.assertEquals(2, index.size());
+
+        a[0] = 4;
+        index.update(a);
+        Assert.assertEquals(-1, index.indexOf(a));
+        Assert.assertEquals(1, index.size());
+        index.setFilters();
+        Assert.assertSame(a, index.get(0));
+        Assert.assertEquals(3, index.totalSize());
+    }
+
+    @Test
+    public void switchingKeepsEveryOrderUpToDate() {
+        ListIndex<int[]> index = new ListIndex<>();
+        index.addSort("value", Comparator.comparingInt(e -> e[0]));
+        index.addSort("reversed", Comparator.comparingInt(e -> -e[0]));
+        index.addFilter("odd", e -> e[0] % 2 == 1);
+        index.addFilter("small", e -> e[0] < 50);
+        index.setSearchKey(e -> Integer.toString(e[0]));
+
+        Random random = new Random(42);
+        List<int[]> added = new ArrayList<>();
+        String[] sorts = {null, "value", "reversed"};
+        String[][] filters = {{}, {"odd"}, {"small"}, {"odd", "small"}};
+        String[] queries = {null, "1"};
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || added.isEmpty()) {
+                int[] element = {random.nextInt(100)};
+                index.add(element);
+                added.add(element);
+            } else if (operation < 7) {
+                index.remove(added.remove(random.nextInt(added.size())));
+            } else if (operation < 9) {
+                int[] element = added.get(random.nextInt(added.size()));
+                element[0] = random.nextInt(100);
+                index.update(element);
+            } else {
+                index.setSort(sorts[random.nextInt(sorts.length)]);
+                index.setFilters(filters[random.nextInt(filters.length)]);
+                index.search(queries[random.nextInt(queries.length)]);
+            }
+
+            Predicate<int[]> visible = e -> (!index.getFilters().contains("odd") || e[0] % 2 == 1)
+                    && (!index.getFilters().contains("small") || e[0] < 50)
+                    && (index.getQuery() == null || Integer.toString(e[0]).contains(index.getQuery()));
+            List<int[]> expected = added.stream().filter(visible).collect(Collectors.toList());
+            if (index.getSort() != null) {
+                Comparator<int[]> comparator = Comparator.comparingInt(e -> index.getSort().equals("value") ? e[0] : -e[0]);
+                // equal elements keep their insertion order, which updates don't change
+                expected.sort(comparator);
+            }
+            Assert.assertEquals(added.size(), index.totalSize());
+            Assert.assertEquals(expected, index.slice(0, added.size()));
+            if (!expected.isEmpty()) {
+                int[] element = expected.get(random.nextInt(expected.size()));
+                Assert.assertEquals(expected.indexOf(element), index.indexOf(element));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.cubbossa.menuframework.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class SearchIndexTest {
+
+    @Test
+    public void topMatchesAreRanked() {
+        SearchIndex<String> index = new SearchIndex<>();
+        List.of("Steve", "steven", "Alex", "bSteve", "xxsteve1", "Stefan", "notch").forEach(s -> index.add(s, s));
+        Assert.assertEquals(List.of("Steve", "steven", "bSteve", "xxsteve1"), index.search("steve", 10));
+        Assert.assertEquals(List.of("Stefan", "Steve"), index.search("STE", 2));
+        Assert.assertEquals(List.of(), index.search("q", 10));
+    }
+
+    @Test
+    public void rankingAndLimit() {
+        SearchIndex<String> index = new SearchIndex<>();
+        List.of("xxsteve", "xsteveabc", "stevea", "xsteve", "steve", "notch").forEach(s -> index.add(s, s));
+        // exact match, prefix matches, then inner matches by position and length
+        Assert.assertEquals(List.of("steve", "stevea", "xsteve", "xsteveabc", "xxsteve"), index.search("steve", 10));
+        // the limit keeps the best inner matches, regardless of their insertion order
+        Assert.assertEquals(List.of("steve", "stevea", "xsteve", "xsteveabc"), index.search("steve", 4));
+        Assert.assertEquals(List.of("steve", "stevea", "xsteve"), index.search("steve", 3));
+        Assert.assertEquals(List.of("steve"), index.search("steve", 1));
+        Assert.assertEquals(List.of(), index.search("steve", 0));
+        Assert.assertEquals(List.of("notch", "steve"), index.search("", 2));
+        Assert.assertEquals(Set.of("steve", "stevea", "xsteve", "xsteveabc", "xxsteve"), index.search("steve"));
+    }
+
+    @Test
+    public void removedKeysAreNotFound() {
+        SearchIndex<String> index = new SearchIndex<>();
+        List.of("Steve", "steven", "bSteve", "xxsteve1").forEach(s -> index.add(s, s));
+        index.remove("steven");
+        index.add("Alex", "Stevenson");
+        Assert.assertEquals(List.of("Steve", "Alex", "bSteve", "xxsteve1"), index.search("steve", 10));
+        Assert.assertFalse(index.matches("steven", "steve"));
+        Assert.assertEquals(4, index.size());
+    }
+}